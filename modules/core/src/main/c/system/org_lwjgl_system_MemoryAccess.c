@@ -67,6 +67,86 @@ JNIEXPORT void JNICALL Java_org_lwjgl_system_MemoryAccess_memcpy(JNIEnv *env, jc
 	memcpy((void *)(intptr_t)dst, (const void *)(intptr_t)src, (size_t)bytes);
 }
 
+// memcpyStrided(JIJIII)V
+JNIEXPORT void JNICALL Java_org_lwjgl_system_MemoryAccess_memcpyStrided(JNIEnv *env, jclass clazz,
+	jlong dst, jint dstStride, jlong src, jint srcStride, jint elementSize, jint count
+) {
+	char *d = (char *)(intptr_t)dst;
+	const char *s = (const char *)(intptr_t)src;
+	jint i;
+	UNUSED_PARAMS(env, clazz)
+
+	for ( i = 0; i < count; i++ ) {
+		memcpy(d, s, (size_t)elementSize);
+		d += dstStride;
+		s += srcStride;
+	}
+}
+
+// copyFromArray(Ljava/lang/Object;JJJ)V
+JNIEXPORT void JNICALL Java_org_lwjgl_system_MemoryAccess_copyFromArray(JNIEnv *env, jclass clazz,
+	jobject src, jlong srcOffset, jlong dst, jlong bytes
+) {
+	void *array;
+	UNUSED_PARAM(clazz)
+
+	array = (*env)->GetPrimitiveArrayCritical(env, (jarray)src, NULL);
+	memcpy((void *)(intptr_t)dst, (const char *)array + srcOffset, (size_t)bytes);
+	(*env)->ReleasePrimitiveArrayCritical(env, (jarray)src, array, JNI_ABORT);
+}
+
+// copyToArray(JLjava/lang/Object;JJ)V
+JNIEXPORT void JNICALL Java_org_lwjgl_system_MemoryAccess_copyToArray(JNIEnv *env, jclass clazz,
+	jlong src, jobject dst, jlong dstOffset, jlong bytes
+) {
+	void *array;
+	UNUSED_PARAM(clazz)
+
+	array = (*env)->GetPrimitiveArrayCritical(env, (jarray)dst, NULL);
+	memcpy((char *)array + dstOffset, (const void *)(intptr_t)src, (size_t)bytes);
+	(*env)->ReleasePrimitiveArrayCritical(env, (jarray)dst, array, 0);
+}
+
+// copyFromArrayStrided(Ljava/lang/Object;JJIII)V
+JNIEXPORT void JNICALL Java_org_lwjgl_system_MemoryAccess_copyFromArrayStrided(JNIEnv *env, jclass clazz,
+	jobject src, jlong srcOffset, jlong dst, jint dstStride, jint elementSize, jint count
+) {
+	void *array;
+	char *d = (char *)(intptr_t)dst;
+	const char *s;
+	jint i;
+	UNUSED_PARAM(clazz)
+
+	array = (*env)->GetPrimitiveArrayCritical(env, (jarray)src, NULL);
+	s = (const char *)array + srcOffset;
+	for ( i = 0; i < count; i++ ) {
+		memcpy(d, s, (size_t)elementSize);
+		d += dstStride;
+		s += elementSize;
+	}
+	(*env)->ReleasePrimitiveArrayCritical(env, (jarray)src, array, JNI_ABORT);
+}
+
+// copyToArrayStrided(JILjava/lang/Object;JII)V
+JNIEXPORT void JNICALL Java_org_lwjgl_system_MemoryAccess_copyToArrayStrided(JNIEnv *env, jclass clazz,
+	jlong src, jint srcStride, jobject dst, jlong dstOffset, jint elementSize, jint count
+) {
+	void *array;
+	char *d;
+	const char *s = (const char *)(intptr_t)src;
+	jint i;
+	UNUSED_PARAM(clazz)
+
+	array = (*env)->GetPrimitiveArrayCritical(env, (jarray)dst, NULL);
+	d = (char *)array + dstOffset;
+	for ( i = 0; i < count; i++ ) {
+		memcpy(d, s, (size_t)elementSize);
+		d += elementSize;
+		s += srcStride;
+	}
+	(*env)->ReleasePrimitiveArrayCritical(env, (jarray)dst, array, 0);
+}
+
 // getByte(J)B
 JNIEXPORT jbyte JNICALL Java_org_lwjgl_system_MemoryAccess_getByte(JNIEnv *env, jclass clazz, jlong ptr) {
 	UNUSED_PARAMS(env, clazz)
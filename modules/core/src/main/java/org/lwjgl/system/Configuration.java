@@ -85,6 +85,8 @@ public class Configuration<T> {
 	 * <ul>
 	 * <li><em>jemalloc</em> - The allocator provided by the jemalloc library</li>
 	 * <li><em>system</em> - The default system memory allocator</li>
+	 * <li><em>pooled</em> - A size-class pooling allocator with per-thread free lists, on top of jemalloc (or the system allocator, if jemalloc is not
+	 * available). Suitable for applications that frequently allocate and free small blocks.</li>
 	 * <li><em>&lt;classpath&gt;</em> - A class that implements the {@link MemoryAllocator} interface. It will be instantiated using reflection.</li>
 	 * </ul>
 	 *
@@ -97,6 +99,22 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<Object> MEMORY_ALLOCATOR = new Configuration<Object>("org.lwjgl.system.allocator", StateInit.STRING);
 
+	/**
+	 * Sets the size threshold, in kilobytes, above which {@link MemoryUtil} allocations are served directly with {@code mmap}, bypassing the
+	 * {@link #MEMORY_ALLOCATOR}.
+	 *
+	 * <p>Such allocations are aligned to the huge page size and the kernel is advised to back them with transparent huge pages ({@code MADV_HUGEPAGE}). This
+	 * reduces TLB misses when accessing large buffers, e.g. multi-megabyte vertex or texture staging buffers. Allocations above the threshold are rounded up
+	 * to a multiple of the huge page size, so the threshold should not be set too low. Only supported on Linux, ignored on other platforms.</p>
+	 *
+	 * <p>If this option is not set, it defaults to 0 and all allocations go through the {@link #MEMORY_ALLOCATOR}.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.hugePageThreshold</b><br>
+	 * &nbsp; &nbsp;Usage: Static<br>
+	 */
+	public static final Configuration<Integer> MEMORY_HUGE_PAGE_THRESHOLD = new Configuration<Integer>("org.lwjgl.system.hugePageThreshold", StateInit.INT);
+
 	/**
 	 * Sets the stack size, in kilobytes, that will be used in the default {@link MemoryStack} constructor. This value is also used for the LWJGL-managed,
 	 * thread-local, {@link MemoryStack} instances.
@@ -109,6 +127,35 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<Integer> STACK_SIZE = new Configuration<Integer>("org.lwjgl.system.stackSize", StateInit.INT);
 
+	/**
+	 * Set to true to make {@link MemoryStack} instances growable. When a stack allocation does not fit in the remaining stack space, a growable stack chains
+	 * a new off-heap segment, allocated with the {@link MemoryUtil} explicit memory management API, instead of throwing an {@link OutOfMemoryError}. Such
+	 * segments are freed when the stack frame that created them is popped.
+	 *
+	 * <p>This option affects the default {@link MemoryStack} factory methods, including the LWJGL-managed, thread-local, {@link MemoryStack} instances.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.stackGrowable</b><br>
+	 * &nbsp; &nbsp;Usage: Static<br>
+	 */
+	public static final Configuration<Boolean> STACK_GROWABLE = new Configuration<Boolean>("org.lwjgl.system.stackGrowable", StateInit.BOOLEAN);
+
+	/**
+	 * Sets the maximum number of thread-local {@link MemoryStack} segments that will be pooled for reuse.
+	 *
+	 * <p>When set to a positive value, the base segments of the LWJGL-managed, thread-local, {@link MemoryStack} instances are allocated with the
+	 * {@link MemoryUtil} explicit memory management API, instead of being backed by a direct {@link java.nio.ByteBuffer}. When a thread terminates, its
+	 * segment is returned to the pool and handed to the next thread that needs a stack. This avoids a direct buffer allocation and its GC-managed cleanup
+	 * per thread, which is significant for applications that use many short-lived threads. Segments beyond the pool capacity are freed.</p>
+	 *
+	 * <p>If this option is not set, it defaults to 0 and pooling is disabled.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.stackPoolSize</b><br>
+	 * &nbsp; &nbsp;Usage: Static<br>
+	 */
+	public static final Configuration<Integer> STACK_POOL_SIZE = new Configuration<Integer>("org.lwjgl.system.stackPoolSize", StateInit.INT);
+
 	/**
 	 * Sets the implementation used internally by LWJGL for thread-local data. Supported values:
 	 *
@@ -165,7 +212,8 @@ public class Configuration<T> {
 	 * will be reported on JVM exit. The {@code memReport} methods can also be used.
 	 *
 	 * <p>When this option is enabled, a stacktrace is generated on every allocation, which may negatively impact performance. If this becomes a serious issue,
-	 * the JVM option {@code -XX:MaxJavaStackTraceDepth=d} (where {@code d >= 6}) can be used to reduce the overhead.</p>
+	 * stack traces can be sampled with {@link #DEBUG_MEMORY_ALLOCATOR_SAMPLING}. The JVM option {@code -XX:MaxJavaStackTraceDepth=d} (where {@code d >= 6})
+	 * can also be used to reduce the overhead.</p>
 	 *
 	 * <p style="font-family: monospace">
 	 * Property: <b>org.lwjgl.util.DebugAllocator</b><br>
@@ -173,6 +221,61 @@ public class Configuration<T> {
 	 */
 	public static final Configuration<Boolean> DEBUG_MEMORY_ALLOCATOR = new Configuration<Boolean>("org.lwjgl.util.DebugAllocator", StateInit.BOOLEAN);
 
+	/**
+	 * When {@link #DEBUG_MEMORY_ALLOCATOR} is enabled, sets the stack trace sampling interval. The stack trace of one in every {@code N} allocations is
+	 * captured. All allocations are still tracked and leaks are still detected, but only the sampled allocations are reported with a stack trace.
+	 *
+	 * <p>Capturing stack traces is the most expensive part of allocation tracking. Sampling makes it practical to keep leak detection enabled under load.</p>
+	 *
+	 * <p>If this option is not set, it defaults to 1 and the stack trace of every allocation is captured.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.util.DebugAllocator.sampling</b><br>
+	 * &nbsp; &nbsp;Usage: Static<br>
+	 */
+	public static final Configuration<Integer> DEBUG_MEMORY_ALLOCATOR_SAMPLING = new Configuration<Integer>("org.lwjgl.util.DebugAllocator.sampling", StateInit.INT);
+
+	/**
+	 * Set to true to enable the {@link MemoryStatistics} counters. When enabled, every allocation and free through the {@link MemoryUtil} explicit memory
+	 * management API updates a set of striped counters.
+	 *
+	 * <p>If this option is not set, it defaults to false.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.memoryStatistics</b><br>
+	 * &nbsp; &nbsp;Usage: Static<br>
+	 */
+	public static final Configuration<Boolean> MEMORY_STATISTICS = new Configuration<Boolean>("org.lwjgl.system.memoryStatistics", StateInit.BOOLEAN);
+
+	/**
+	 * When {@link #MEMORY_STATISTICS} is enabled, set to true to also track the number of live bytes. This queries the usable size of every allocation when
+	 * it is allocated, reallocated and freed, which is an additional allocator call, and is only supported by allocators that can report the usable size
+	 * of an allocation, such as jemalloc.
+	 *
+	 * <p>If this option is not set, it defaults to false.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.memoryStatistics.usableSize</b><br>
+	 * &nbsp; &nbsp;Usage: Static<br>
+	 */
+	public static final Configuration<Boolean> MEMORY_STATISTICS_USABLE_SIZE = new Configuration<Boolean>(
+		"org.lwjgl.system.memoryStatistics.usableSize",
+		StateInit.BOOLEAN
+	);
+
+	/**
+	 * Set to true to track the live bytes of each allocation tag (see {@link MemoryUtil#memSetTag}). This is independent of {@link #MEMORY_STATISTICS}.
+	 * When enabled, the size and tag of every live allocation made through the {@link MemoryUtil} explicit memory management API are stored in a striped,
+	 * off-heap table, which costs a table update per allocation and free, but does not capture stack traces like {@link #DEBUG_MEMORY_ALLOCATOR}.
+	 *
+	 * <p>If this option is not set, it defaults to false.</p>
+	 *
+	 * <p style="font-family: monospace">
+	 * Property: <b>org.lwjgl.system.memoryStatistics.tags</b><br>
+	 * &nbsp; &nbsp;Usage: Static<br>
+	 */
+	public static final Configuration<Boolean> MEMORY_STATISTICS_TAGS = new Configuration<Boolean>("org.lwjgl.system.memoryStatistics.tags", StateInit.BOOLEAN);
+
 	/**
 	 * Set to true to enable LWJGL's debug mode for the {@link MemoryStack}. When using the stack, each frame should be popped in the same method that pushed
 	 * it. If this symmetry is broken, this mode will report it immediately.
@@ -0,0 +1,306 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.Pointer.*;
+
+/**
+ * A view of a native memory region that may be larger than 2GB.
+ *
+ * <p>NIO buffers are indexed with {@code int} values, which limits them to {@link Integer#MAX_VALUE} elements. This class provides absolute, {@code long}
+ * indexed access to regions of any size. All offsets and sizes are in bytes and relative to the start of the region. Values are read and written in the
+ * native byte order.</p>
+ *
+ * <p>Offsets are validated against the region bounds when {@link Checks#CHECKS checks} are enabled. Unlike NIO buffers, there are no position and limit, so
+ * instances are immutable and may be shared between threads. The memory itself is not synchronized.</p>
+ *
+ * <p>Instances returned by {@link #malloc} and {@link #calloc} own their memory, which must be freed with {@link #free}. Instances returned by
+ * {@link #create} and {@link #slice} do not.</p>
+ */
+public final class LargeBuffer extends Pointer.Default {
+
+	private final long size;
+
+	/** True if this instance was returned by {@link #malloc} or {@link #calloc}. */
+	private final boolean owner;
+
+	private LargeBuffer(long address, long size, boolean owner) {
+		super(address);
+		this.size = size;
+		this.owner = owner;
+	}
+
+	/**
+	 * Returns a new view of the specified memory region.
+	 *
+	 * @param address the region address
+	 * @param size    the region size, in bytes
+	 */
+	public static LargeBuffer create(long address, long size) {
+		if ( Checks.CHECKS && (address == NULL || size < 0L) )
+			throw new IllegalArgumentException();
+
+		return new LargeBuffer(address, size, false);
+	}
+
+	/**
+	 * Allocates a new memory region with {@link MemoryUtil#nmemAlloc nmemAlloc}.
+	 *
+	 * @param size the region size, in bytes
+	 *
+	 * @throws OutOfMemoryError if the allocation fails
+	 */
+	public static LargeBuffer malloc(long size) {
+		return allocated(nmemAlloc(size), size);
+	}
+
+	/**
+	 * Allocates a new memory region with {@link MemoryUtil#nmemCalloc nmemCalloc}. The region is initialized to zero.
+	 *
+	 * @param size the region size, in bytes
+	 *
+	 * @throws OutOfMemoryError if the allocation fails
+	 */
+	public static LargeBuffer calloc(long size) {
+		return allocated(nmemCalloc(1L, size), size);
+	}
+
+	private static LargeBuffer allocated(long address, long size) {
+		if ( address == NULL )
+			throw new OutOfMemoryError("Failed to allocate " + size + " bytes.");
+
+		return new LargeBuffer(address, size, true);
+	}
+
+	/**
+	 * Frees a region allocated with {@link #malloc} or {@link #calloc}. The buffer and any slices must not be used afterwards.
+	 *
+	 * @throws IllegalStateException if this buffer does not own its memory
+	 */
+	public void free() {
+		if ( !owner )
+			throw new IllegalStateException("The buffer does not own its memory.");
+
+		nmemFree(address(), size);
+	}
+
+	/** Returns the region size, in bytes. */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns the address at the specified offset.
+	 *
+	 * @param offset the offset, in bytes. May be equal to {@link #size}.
+	 */
+	public long address(long offset) {
+		check(offset, 0L);
+		return address() + offset;
+	}
+
+	/**
+	 * Returns a view of a subregion of this region. The view shares the memory of this region.
+	 *
+	 * @param offset the subregion offset, in bytes
+	 * @param size   the subregion size, in bytes
+	 */
+	public LargeBuffer slice(long offset, long size) {
+		check(offset, size);
+		return new LargeBuffer(address() + offset, size, false);
+	}
+
+	/**
+	 * Returns a {@link ByteBuffer} view of a subregion of this region, for passing to APIs that expect NIO buffers.
+	 *
+	 * @param offset the subregion offset, in bytes
+	 * @param size   the subregion size, in bytes
+	 */
+	public ByteBuffer asByteBuffer(long offset, int size) {
+		check(offset, size);
+		return memByteBuffer(address() + offset, size);
+	}
+
+	private void check(long offset, long bytes) {
+		if ( Checks.CHECKS && (offset < 0L || bytes < 0L || size - offset < bytes) )
+			throw new IndexOutOfBoundsException("Region size: " + size + ", offset: " + offset + ", bytes: " + bytes);
+	}
+
+	private long address(long offset, long bytes) {
+		check(offset, bytes);
+		return address() + offset;
+	}
+
+	// -----------------------------------------------------
+
+	public byte getByte(long offset) { return memGetByte(address(offset, 1L)); }
+
+	public short getShort(long offset) { return memGetShort(address(offset, 2L)); }
+
+	public int getInt(long offset) { return memGetInt(address(offset, 4L)); }
+
+	public long getLong(long offset) { return memGetLong(address(offset, 8L)); }
+
+	public float getFloat(long offset) { return memGetFloat(address(offset, 4L)); }
+
+	public double getDouble(long offset) { return memGetDouble(address(offset, 8L)); }
+
+	public long getAddress(long offset) { return memGetAddress(address(offset, POINTER_SIZE)); }
+
+	public LargeBuffer putByte(long offset, byte value) {
+		memPutByte(address(offset, 1L), value);
+		return this;
+	}
+
+	public LargeBuffer putShort(long offset, short value) {
+		memPutShort(address(offset, 2L), value);
+		return this;
+	}
+
+	public LargeBuffer putInt(long offset, int value) {
+		memPutInt(address(offset, 4L), value);
+		return this;
+	}
+
+	public LargeBuffer putLong(long offset, long value) {
+		memPutLong(address(offset, 8L), value);
+		return this;
+	}
+
+	public LargeBuffer putFloat(long offset, float value) {
+		memPutFloat(address(offset, 4L), value);
+		return this;
+	}
+
+	public LargeBuffer putDouble(long offset, double value) {
+		memPutDouble(address(offset, 8L), value);
+		return this;
+	}
+
+	public LargeBuffer putAddress(long offset, long value) {
+		memPutAddress(address(offset, POINTER_SIZE), value);
+		return this;
+	}
+
+	// -----------------------------------------------------
+
+	/**
+	 * Copies bytes from this region to an array.
+	 *
+	 * @param offset the offset of the first byte to copy
+	 * @param dst    the destination array
+	 * @param index  the index of the first array element to copy to
+	 * @param length the number of elements to copy
+	 */
+	public LargeBuffer get(long offset, byte[] dst, int index, int length) {
+		memCopy(address(offset, length), dst, index, length);
+		return this;
+	}
+
+	/** {@code short[]} version of {@link #get(long, byte[], int, int)}. */
+	public LargeBuffer get(long offset, short[] dst, int index, int length) {
+		memCopy(address(offset, (long)length << 1), dst, index, length);
+		return this;
+	}
+
+	/** {@code int[]} version of {@link #get(long, byte[], int, int)}. */
+	public LargeBuffer get(long offset, int[] dst, int index, int length) {
+		memCopy(address(offset, (long)length << 2), dst, index, length);
+		return this;
+	}
+
+	/** {@code long[]} version of {@link #get(long, byte[], int, int)}. */
+	public LargeBuffer get(long offset, long[] dst, int index, int length) {
+		memCopy(address(offset, (long)length << 3), dst, index, length);
+		return this;
+	}
+
+	/** {@code float[]} version of {@link #get(long, byte[], int, int)}. */
+	public LargeBuffer get(long offset, float[] dst, int index, int length) {
+		memCopy(address(offset, (long)length << 2), dst, index, length);
+		return this;
+	}
+
+	/** {@code double[]} version of {@link #get(long, byte[], int, int)}. */
+	public LargeBuffer get(long offset, double[] dst, int index, int length) {
+		memCopy(address(offset, (long)length << 3), dst, index, length);
+		return this;
+	}
+
+	/**
+	 * Copies bytes from an array to this region.
+	 *
+	 * @param offset the offset of the first byte to copy to
+	 * @param src    the source array
+	 * @param index  the index of the first array element to copy
+	 * @param length the number of elements to copy
+	 */
+	public LargeBuffer put(long offset, byte[] src, int index, int length) {
+		memCopy(src, index, address(offset, length), length);
+		return this;
+	}
+
+	/** {@code short[]} version of {@link #put(long, byte[], int, int)}. */
+	public LargeBuffer put(long offset, short[] src, int index, int length) {
+		memCopy(src, index, address(offset, (long)length << 1), length);
+		return this;
+	}
+
+	/** {@code int[]} version of {@link #put(long, byte[], int, int)}. */
+	public LargeBuffer put(long offset, int[] src, int index, int length) {
+		memCopy(src, index, address(offset, (long)length << 2), length);
+		return this;
+	}
+
+	/** {@code long[]} version of {@link #put(long, byte[], int, int)}. */
+	public LargeBuffer put(long offset, long[] src, int index, int length) {
+		memCopy(src, index, address(offset, (long)length << 3), length);
+		return this;
+	}
+
+	/** {@code float[]} version of {@link #put(long, byte[], int, int)}. */
+	public LargeBuffer put(long offset, float[] src, int index, int length) {
+		memCopy(src, index, address(offset, (long)length << 2), length);
+		return this;
+	}
+
+	/** {@code double[]} version of {@link #put(long, byte[], int, int)}. */
+	public LargeBuffer put(long offset, double[] src, int index, int length) {
+		memCopy(src, index, address(offset, (long)length << 3), length);
+		return this;
+	}
+
+	/**
+	 * Copies bytes from this region to another region. The regions must not overlap.
+	 *
+	 * @param offset    the offset of the first byte to copy
+	 * @param dst       the destination region
+	 * @param dstOffset the offset of the first byte to copy to
+	 * @param bytes     the number of bytes to copy
+	 */
+	public LargeBuffer copy(long offset, LargeBuffer dst, long dstOffset, long bytes) {
+		memCopy(address(offset, bytes), dst.address(dstOffset, bytes), bytes);
+		return this;
+	}
+
+	/**
+	 * Sets all bytes in this region to the specified value.
+	 *
+	 * @param value the value to set (will be converted to unsigned byte)
+	 */
+	public LargeBuffer fill(int value) {
+		memSet(address(), value, size);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s pointer [0x%X], size: %d", getClass().getSimpleName(), address(), size);
+	}
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A region of a file, mapped into memory.
+ *
+ * <p>The mapped memory can be passed to native functions that read from memory, such as {@code stbi_load_from_memory} or {@code glBufferData}, without
+ * copying the file contents to the Java heap or to a separate buffer. Pages are loaded from the file on demand by the operating system.</p>
+ *
+ * <p>A single mapping cannot be larger than {@link Integer#MAX_VALUE} bytes, so larger regions are mapped as a sequence of consecutive windows. The
+ * windows are contiguous in the file, but not necessarily in memory. The {@link #address}, {@link #getBuffer} and typed view methods are only available
+ * if the region fits in a single window. Otherwise, the windows must be accessed individually with {@link #getWindowAddress} and {@link #getWindow}.</p>
+ *
+ * <p>{@link #close} unmaps the region immediately, instead of waiting for the buffers to be garbage collected. Similarly to memory freed with
+ * {@link MemoryUtil#memFree memFree}, the buffers and addresses returned by this class must not be used after {@code close} has been called, or the JVM
+ * may crash.</p>
+ *
+ * <pre><code>MappedFile file = MappedFile.map(new File("texture.png"), false);
+ * try {
+ *     ByteBuffer image = stbi_load_from_memory(file.getBuffer(), w, h, comp, 0);
+ *     ...
+ * } finally {
+ *     file.close();
+ * }</code></pre>
+ */
+public final class MappedFile implements Closeable {
+
+	/** The default window size, 1GB. */
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+	private final long size;
+	private final int  windowSize;
+
+	private final boolean writable;
+
+	private MappedByteBuffer[] windows;
+
+	private MappedFile(MappedByteBuffer[] windows, long size, int windowSize, boolean writable) {
+		this.windows = windows;
+		this.size = size;
+		this.windowSize = windowSize;
+		this.writable = writable;
+	}
+
+	/**
+	 * Maps an entire file into memory.
+	 *
+	 * @param file     the file to map
+	 * @param writable if true, the file is mapped read-write and changes to the mapped memory are written to the file. Otherwise, the file is mapped
+	 *                 read-only.
+	 */
+	public static MappedFile map(File file, boolean writable) throws IOException {
+		return map(file, writable, 0L, file.length(), DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Maps a region of a file into memory.
+	 *
+	 * <p>If the file is mapped read-write and the region extends beyond the end of the file, the file is extended. The contents of the extension are
+	 * unspecified.</p>
+	 *
+	 * @param file       the file to map
+	 * @param writable   if true, the file is mapped read-write and changes to the mapped memory are written to the file. Otherwise, the file is mapped
+	 *                   read-only.
+	 * @param offset     the offset of the region in the file
+	 * @param size       the size of the region, in bytes
+	 * @param windowSize the maximum size of each window, in bytes
+	 */
+	public static MappedFile map(File file, boolean writable, long offset, long size, int windowSize) throws IOException {
+		if ( offset < 0L || size < 0L || windowSize <= 0 )
+			throw new IllegalArgumentException();
+
+		int windowCount = (int)((size + windowSize - 1) / windowSize);
+		MappedByteBuffer[] windows = new MappedByteBuffer[windowCount];
+
+		// The mappings remain valid after the channel is closed
+		RandomAccessFile raf = new RandomAccessFile(file, writable ? "rw" : "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			MapMode mode = writable ? MapMode.READ_WRITE : MapMode.READ_ONLY;
+
+			for ( int i = 0; i < windowCount; i++ ) {
+				long position = (long)i * windowSize;
+				windows[i] = channel.map(mode, offset + position, Math.min(windowSize, size - position));
+				windows[i].order(ByteOrder.nativeOrder());
+			}
+		} catch (IOException e) {
+			for ( MappedByteBuffer window : windows ) {
+				if ( window != null )
+					unmap(window);
+			}
+			throw e;
+		} finally {
+			raf.close();
+		}
+
+		return new MappedFile(windows, size, windowSize, writable);
+	}
+
+	/** Returns the size of the mapped region, in bytes. */
+	public long size() {
+		return size;
+	}
+
+	/** Returns true if the region is mapped read-write. */
+	public boolean isWritable() {
+		return writable;
+	}
+
+	/** Returns true if the region has been unmapped. */
+	public boolean isClosed() {
+		return windows == null;
+	}
+
+	/** Returns the number of windows. */
+	public int getWindowCount() {
+		return getWindows().length;
+	}
+
+	/** Returns the maximum size of each window. Window {@code i} starts at offset {@code i * getWindowSize()} in the region. */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Returns the specified window.
+	 *
+	 * <p>The returned buffer has native byte order. It is shared by all callers, so its position and limit should not be modified.</p>
+	 *
+	 * @param index the window index
+	 */
+	public ByteBuffer getWindow(int index) {
+		return getWindows()[index];
+	}
+
+	/**
+	 * Returns the memory address of the specified window.
+	 *
+	 * @param index the window index
+	 */
+	public long getWindowAddress(int index) {
+		return memAddress0(getWindows()[index]);
+	}
+
+	private MappedByteBuffer[] getWindows() {
+		if ( windows == null )
+			throw new IllegalStateException("The file has been unmapped.");
+
+		return windows;
+	}
+
+	private MappedByteBuffer getSingleWindow() {
+		MappedByteBuffer[] windows = getWindows();
+		if ( windows.length != 1 )
+			throw new IllegalStateException("The mapped region does not fit in a single window.");
+
+		return windows[0];
+	}
+
+	/**
+	 * Returns the memory address of the mapped region.
+	 *
+	 * @throws IllegalStateException if the region does not fit in a single window
+	 */
+	public long address() {
+		return memAddress0(getSingleWindow());
+	}
+
+	/**
+	 * Returns the mapped region.
+	 *
+	 * <p>The returned buffer has native byte order. It is shared by all callers, so its position and limit should not be modified.</p>
+	 *
+	 * @throws IllegalStateException if the region does not fit in a single window
+	 */
+	public ByteBuffer getBuffer() {
+		return getSingleWindow();
+	}
+
+	/** Returns a {@link ShortBuffer} view of the mapped region. The view is not read-only, even if the region is mapped read-only. */
+	public ShortBuffer getShortBuffer() { return memShortBuffer(address(), (int)(size >> 1)); }
+
+	/** Returns an {@link IntBuffer} view of the mapped region. The view is not read-only, even if the region is mapped read-only. */
+	public IntBuffer getIntBuffer() { return memIntBuffer(address(), (int)(size >> 2)); }
+
+	/** Returns a {@link LongBuffer} view of the mapped region. The view is not read-only, even if the region is mapped read-only. */
+	public LongBuffer getLongBuffer() { return memLongBuffer(address(), (int)(size >> 3)); }
+
+	/** Returns a {@link FloatBuffer} view of the mapped region. The view is not read-only, even if the region is mapped read-only. */
+	public FloatBuffer getFloatBuffer() { return memFloatBuffer(address(), (int)(size >> 2)); }
+
+	/** Returns a {@link DoubleBuffer} view of the mapped region. The view is not read-only, even if the region is mapped read-only. */
+	public DoubleBuffer getDoubleBuffer() { return memDoubleBuffer(address(), (int)(size >> 3)); }
+
+	/** Writes any changes made to a read-write region to the storage device. Does nothing if the region is mapped read-only. */
+	public void force() {
+		if ( !writable )
+			return;
+
+		for ( MappedByteBuffer window : getWindows() )
+			window.force();
+	}
+
+	/** Unmaps the region. Does nothing if the region has already been unmapped. */
+	@Override
+	public void close() {
+		if ( windows == null )
+			return;
+
+		for ( MappedByteBuffer window : windows )
+			unmap(window);
+		windows = null;
+	}
+
+	// -----------------------------------------------------
+
+	private static final Method INVOKE_CLEANER;
+	private static final Object UNSAFE;
+
+	static {
+		Method invokeCleaner = null;
+		Object unsafe = null;
+		try {
+			// Java 9+
+			unsafe = MemoryAccess.getUnsafeInstance();
+			invokeCleaner = unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (Throwable ignored) {
+		}
+
+		INVOKE_CLEANER = invokeCleaner;
+		UNSAFE = unsafe;
+	}
+
+	/** Unmaps a mapped buffer. If that is not possible, the buffer is unmapped when it is garbage collected. */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			if ( INVOKE_CLEANER != null ) {
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+			} else {
+				Method cleaner = buffer.getClass().getMethod("cleaner");
+				cleaner.setAccessible(true);
+
+				Object c = cleaner.invoke(buffer);
+				if ( c != null )
+					c.getClass().getMethod("clean").invoke(c);
+			}
+		} catch (Throwable t) {
+			apiLog("[MappedFile] Failed to unmap a mapped buffer, it will be unmapped when garbage collected.");
+		}
+	}
+
+}
@@ -65,6 +65,21 @@ final class MemoryAccess {
 	// The standard C memcpy function
 	private static native void memcpy(long dst, long src, long bytes);
 
+	// Copies count elements of elementSize bytes, advancing dst and src by the specified strides after each element
+	private static native void memcpyStrided(long dst, int dstStride, long src, int srcStride, int elementSize, int count);
+
+	// Copies bytes from a primitive array to native memory. The offset is relative to the first array element.
+	private static native void copyFromArray(Object src, long srcOffset, long dst, long bytes);
+
+	// Copies bytes from native memory to a primitive array. The offset is relative to the first array element.
+	private static native void copyToArray(long src, Object dst, long dstOffset, long bytes);
+
+	// Copies count elements of elementSize bytes from a primitive array, tightly packed, to native memory, advancing dst by dstStride after each element
+	private static native void copyFromArrayStrided(Object src, long srcOffset, long dst, int dstStride, int elementSize, int count);
+
+	// Copies count elements of elementSize bytes from native memory to a primitive array, tightly packed, advancing src by srcStride after each element
+	private static native void copyToArrayStrided(long src, int srcStride, Object dst, long dstOffset, int elementSize, int count);
+
 	// Primitive getters
 
 	private static native byte getByte(long ptr);
@@ -149,12 +164,28 @@ final class MemoryAccess {
 
 		abstract DoubleBuffer memSetupBuffer(DoubleBuffer buffer, long address, int capacity);
 
-		void memSet(long dst, int value, int bytes) { memset(dst, value, bytes); }
+		void memSet(long dst, int value, long bytes) { memset(dst, value, bytes); }
 
-		void memCopy(long src, long dst, int bytes) {
+		void memCopy(long src, long dst, long bytes) {
 			memcpy(dst, src, bytes); // Note the swapped src & dst
 		}
 
+		void memCopyStrided(long src, int srcStride, long dst, int dstStride, int elementSize, int count) {
+			memcpyStrided(dst, dstStride, src, srcStride, elementSize, count);
+		}
+
+		void memCopy(Object src, long srcOffset, long dst, long bytes) { copyFromArray(src, srcOffset, dst, bytes); }
+
+		void memCopy(long src, Object dst, long dstOffset, long bytes) { copyToArray(src, dst, dstOffset, bytes); }
+
+		void memCopyStrided(float[] src, int srcIndex, int components, long dst, int dstStride, int count) {
+			copyFromArrayStrided(src, (long)srcIndex << 2, dst, dstStride, components << 2, count);
+		}
+
+		void memCopyStrided(long src, int srcStride, float[] dst, int dstIndex, int components, int count) {
+			copyToArrayStrided(src, srcStride, dst, (long)dstIndex << 2, components << 2, count);
+		}
+
 		byte memGetByte(long ptr) { return getByte(ptr); }
 
 		short memGetShort(long ptr) { return getShort(ptr); }
@@ -414,6 +445,13 @@ final class MemoryAccess {
 
 		private static final sun.misc.Unsafe UNSAFE;
 
+		/**
+		 * True if {@code Unsafe.copyMemory(Object, long, Object, long, long)} is available (Java 7+) and all primitive arrays have the same base offset.
+		 * Otherwise, copies between arrays and native memory fall back to JNI.
+		 */
+		private static final boolean ARRAY_COPY;
+		private static final long    ARRAY_BASE_OFFSET;
+
 		private static final long ADDRESS;
 		private static final long CAPACITY;
 
@@ -447,11 +485,29 @@ final class MemoryAccess {
 			} catch (Exception e) {
 				throw new UnsupportedOperationException(e);
 			}
+
+			ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+			ARRAY_COPY = hasArrayCopy() &&
+				UNSAFE.arrayBaseOffset(short[].class) == ARRAY_BASE_OFFSET &&
+				UNSAFE.arrayBaseOffset(char[].class) == ARRAY_BASE_OFFSET &&
+				UNSAFE.arrayBaseOffset(int[].class) == ARRAY_BASE_OFFSET &&
+				UNSAFE.arrayBaseOffset(long[].class) == ARRAY_BASE_OFFSET &&
+				UNSAFE.arrayBaseOffset(float[].class) == ARRAY_BASE_OFFSET &&
+				UNSAFE.arrayBaseOffset(double[].class) == ARRAY_BASE_OFFSET;
 		}
 
 		MemoryAccessorUnsafe() {
 		}
 
+		private static boolean hasArrayCopy() {
+			try {
+				sun.misc.Unsafe.class.getMethod("copyMemory", Object.class, long.class, Object.class, long.class, long.class);
+				return true;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+
 		@Override
 		int getPageSize() {
 			return UNSAFE.pageSize();
@@ -577,35 +633,126 @@ final class MemoryAccess {
 		}
 
 		@Override
-		void memSet(long dst, int value, int bytes) {
+		void memSet(long dst, int value, long bytes) {
 			// Do the memset in BULK_OP_THRESHOLD sized batches to keep TTSP low.
-			while ( true ) {
-				long batchSize = BULK_OP_THRESHOLD < bytes ? BULK_OP_THRESHOLD : bytes;
-				UNSAFE.setMemory(dst, batchSize, (byte)(value & 0xFF));
+			byte b = (byte)(value & 0xFF);
+			while ( BULK_OP_THRESHOLD < bytes ) {
+				UNSAFE.setMemory(dst, BULK_OP_THRESHOLD, b);
 
 				bytes -= BULK_OP_THRESHOLD;
-				if ( bytes < 0 )
-					break;
-
 				dst += BULK_OP_THRESHOLD;
 			}
+			UNSAFE.setMemory(dst, bytes, b);
 		}
 
 		@Override
-		void memCopy(long src, long dst, int bytes) {
+		void memCopy(long src, long dst, long bytes) {
 			// Do the memcpy in BULK_OP_THRESHOLD sized batches to keep TTSP low.
-
-			while ( true ) {
-				long batchSize = BULK_OP_THRESHOLD < bytes ? BULK_OP_THRESHOLD : bytes;
-				UNSAFE.copyMemory(src, dst, batchSize);
+			while ( BULK_OP_THRESHOLD < bytes ) {
+				UNSAFE.copyMemory(src, dst, BULK_OP_THRESHOLD);
 
 				bytes -= BULK_OP_THRESHOLD;
-				if ( bytes < 0 )
+				src += BULK_OP_THRESHOLD;
+				dst += BULK_OP_THRESHOLD;
+			}
+			UNSAFE.copyMemory(src, dst, bytes);
+		}
+
+		/** Elements larger than this are copied with a single JNI call. */
+		private static final int STRIDED_COPY_THRESHOLD = 64;
+
+		@Override
+		void memCopyStrided(long src, int srcStride, long dst, int dstStride, int elementSize, int count) {
+			// Unaligned int accesses may not be supported on all architectures
+			if ( STRIDED_COPY_THRESHOLD < elementSize || ((src | dst | srcStride | dstStride | elementSize) & 3) != 0 ) {
+				super.memCopyStrided(src, srcStride, dst, dstStride, elementSize, count);
+				return;
+			}
+
+			switch ( elementSize ) {
+				case 4:
+					for ( int i = 0; i < count; i++, src += srcStride, dst += dstStride )
+						UNSAFE.putInt(dst, UNSAFE.getInt(src));
+					break;
+				case 8:
+					for ( int i = 0; i < count; i++, src += srcStride, dst += dstStride ) {
+						UNSAFE.putInt(dst, UNSAFE.getInt(src));
+						UNSAFE.putInt(dst + 4, UNSAFE.getInt(src + 4));
+					}
 					break;
+				case 12:
+					for ( int i = 0; i < count; i++, src += srcStride, dst += dstStride ) {
+						UNSAFE.putInt(dst, UNSAFE.getInt(src));
+						UNSAFE.putInt(dst + 4, UNSAFE.getInt(src + 4));
+						UNSAFE.putInt(dst + 8, UNSAFE.getInt(src + 8));
+					}
+					break;
+				case 16:
+					for ( int i = 0; i < count; i++, src += srcStride, dst += dstStride ) {
+						UNSAFE.putInt(dst, UNSAFE.getInt(src));
+						UNSAFE.putInt(dst + 4, UNSAFE.getInt(src + 4));
+						UNSAFE.putInt(dst + 8, UNSAFE.getInt(src + 8));
+						UNSAFE.putInt(dst + 12, UNSAFE.getInt(src + 12));
+					}
+					break;
+				default:
+					for ( int i = 0; i < count; i++, src += srcStride, dst += dstStride ) {
+						for ( int j = 0; j < elementSize; j += 4 )
+							UNSAFE.putInt(dst + j, UNSAFE.getInt(src + j));
+					}
+			}
+		}
 
-				src += BULK_OP_THRESHOLD;
+		@Override
+		void memCopyStrided(float[] src, int srcIndex, int components, long dst, int dstStride, int count) {
+			for ( int i = 0; i < count; i++, dst += dstStride ) {
+				for ( int c = 0; c < components; c++ )
+					UNSAFE.putFloat(dst + (c << 2), src[srcIndex++]);
+			}
+		}
+
+		@Override
+		void memCopyStrided(long src, int srcStride, float[] dst, int dstIndex, int components, int count) {
+			for ( int i = 0; i < count; i++, src += srcStride ) {
+				for ( int c = 0; c < components; c++ )
+					dst[dstIndex++] = UNSAFE.getFloat(src + (c << 2));
+			}
+		}
+
+		@Override
+		void memCopy(Object src, long srcOffset, long dst, long bytes) {
+			if ( !ARRAY_COPY ) {
+				super.memCopy(src, srcOffset, dst, bytes);
+				return;
+			}
+
+			srcOffset += ARRAY_BASE_OFFSET;
+			while ( BULK_OP_THRESHOLD < bytes ) {
+				UNSAFE.copyMemory(src, srcOffset, null, dst, BULK_OP_THRESHOLD);
+
+				bytes -= BULK_OP_THRESHOLD;
+				srcOffset += BULK_OP_THRESHOLD;
 				dst += BULK_OP_THRESHOLD;
 			}
+			UNSAFE.copyMemory(src, srcOffset, null, dst, bytes);
+		}
+
+		@Override
+		void memCopy(long src, Object dst, long dstOffset, long bytes) {
+			if ( !ARRAY_COPY ) {
+				super.memCopy(src, dst, dstOffset, bytes);
+				return;
+			}
+
+			dstOffset += ARRAY_BASE_OFFSET;
+			while ( BULK_OP_THRESHOLD < bytes ) {
+				UNSAFE.copyMemory(null, src, dst, dstOffset, BULK_OP_THRESHOLD);
+
+				bytes -= BULK_OP_THRESHOLD;
+				src += BULK_OP_THRESHOLD;
+				dstOffset += BULK_OP_THRESHOLD;
+			}
+			UNSAFE.copyMemory(null, src, dst, dstOffset, bytes);
 		}
 
 		@Override
@@ -694,6 +841,15 @@ final class MemoryAccess {
 				private int encodeASCII(CharSequence text, boolean nullTerminated, long target) {
 					int p = 0, len = text.length();
 
+					// 8 characters at a time
+					for ( ; p <= len - 8; p += 8 ) {
+						long word = packASCII(text, p);
+						if ( word == -1L )
+							break;
+
+						memPutLong(target + p, word);
+					}
+
 					for ( ; p < len; p++ )
 						memPutByte(target + p, (byte)text.charAt(p));
 
@@ -713,6 +869,16 @@ final class MemoryAccess {
 
 					char c;
 
+					// ASCII fast path, 8 characters at a time
+					for ( ; i <= len - 8; i += 8 ) {
+						long word = packASCII(text, i);
+						if ( word == -1L )
+							break;
+
+						memPutLong(target + i, word);
+					}
+					p = i;
+
 					// ASCII fast path
 					while ( i < len && (c = text.charAt(i)) < 0x80 ) {
 						memPutByte(target + p++, (byte)c);
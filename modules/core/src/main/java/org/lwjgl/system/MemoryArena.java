@@ -0,0 +1,403 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.PointerBuffer;
+
+import java.io.Closeable;
+import java.nio.*;
+import java.util.Arrays;
+
+import static org.lwjgl.system.Checks.*;
+import static org.lwjgl.system.MathUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.Pointer.*;
+
+/**
+ * An off-heap memory arena.
+ *
+ * <p>An arena allocates memory by bumping a pointer through large chunks, which are allocated with the {@link MemoryUtil} explicit memory management API.
+ * Individual allocations cannot be freed. Instead, all allocations made from an arena are released together, either with {@link #reset}, which keeps the
+ * chunks for reuse, or with {@link #free}, which returns them to the {@link MemoryUtil.MemoryAllocator MemoryAllocator}. This makes arenas a good fit for
+ * allocations that share a lifetime, such as the data of a frame, of a loaded asset or of a request.</p>
+ *
+ * <p>Unlike {@link MemoryStack}, an arena is not bound to a thread. It may be handed from one thread to another, and it may be used by multiple threads
+ * concurrently. The arena state is guarded by the arena instance lock.</p>
+ *
+ * <p>This class implements {@link Closeable}, which calls {@link #free}. On Java 7 or newer, arenas can be used in try-with-resources statements.</p>
+ */
+public class MemoryArena implements Closeable {
+
+	private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	private static final int DEFAULT_CHUNKS     = 4;
+
+	private final int chunkSize;
+
+	private long[] chunks;
+	private long[] chunkEnds;
+	private int    chunkCount;
+	private int    chunkIndex;
+
+	/** The address of the next allocation, before alignment. */
+	private long cursor;
+	/** The end address of the current chunk. */
+	private long end;
+
+	/**
+	 * Creates a new {@link MemoryArena} with the specified chunk size.
+	 *
+	 * @param chunkSize the size of each chunk, in bytes. Allocations that do not fit in a chunk are served from a dedicated chunk.
+	 */
+	protected MemoryArena(int chunkSize) {
+		if ( chunkSize <= 0 )
+			throw new IllegalArgumentException("Invalid chunk size.");
+
+		this.chunkSize = chunkSize;
+
+		this.chunks = new long[DEFAULT_CHUNKS];
+		this.chunkEnds = new long[DEFAULT_CHUNKS];
+		this.chunkIndex = -1;
+	}
+
+	/** Creates a new {@link MemoryArena} with the default chunk size. */
+	public static MemoryArena create() {
+		return new MemoryArena(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new {@link MemoryArena} with the specified chunk size.
+	 *
+	 * @param chunkSize the size of each chunk, in bytes
+	 */
+	public static MemoryArena create(int chunkSize) {
+		return new MemoryArena(chunkSize);
+	}
+
+	/** Returns the size of each chunk, in bytes. */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/** Returns the total size of the chunks currently owned by this arena, in bytes. */
+	public synchronized long getCapacity() {
+		long capacity = 0L;
+		for ( int i = 0; i < chunkCount; i++ )
+			capacity += chunkEnds[i] - chunks[i];
+		return capacity;
+	}
+
+	/**
+	 * Releases all allocations made from this arena. The chunks are retained and will be reused by subsequent allocations.
+	 *
+	 * <p>Any memory previously allocated from this arena must not be accessed after this method returns.</p>
+	 */
+	public synchronized void reset() {
+		chunkIndex = -1;
+		cursor = NULL;
+		end = NULL;
+	}
+
+	/**
+	 * Releases all allocations made from this arena and frees its chunks.
+	 *
+	 * <p>Any memory previously allocated from this arena must not be accessed after this method returns. The arena may be used again, in which case new
+	 * chunks will be allocated.</p>
+	 */
+	public synchronized void free() {
+		for ( int i = 0; i < chunkCount; i++ )
+			nmemFree(chunks[i]);
+
+		Arrays.fill(chunks, 0, chunkCount, NULL);
+		chunkCount = 0;
+
+		reset();
+	}
+
+	/** Calls {@link #free}. */
+	@Override
+	public void close() {
+		free();
+	}
+
+	private static void checkAlignment(int alignment) {
+		if ( !mathIsPoT(alignment) )
+			throw new IllegalArgumentException("Alignment must be a power-of-two value.");
+	}
+
+	/**
+	 * Calls {@link #nmalloc(int, int)} with {@code alignment} equal to 1.
+	 *
+	 * @param size the allocation size
+	 *
+	 * @return the memory address in the arena for the requested allocation
+	 */
+	public long nmalloc(int size) {
+		return nmalloc(1, size);
+	}
+
+	/**
+	 * Allocates a block of {@code size} bytes of memory in the arena. The content of the newly allocated block of memory is not initialized, remaining with
+	 * indeterminate values.
+	 *
+	 * @param alignment the required alignment
+	 * @param size      the allocation size
+	 *
+	 * @return the memory address in the arena for the requested allocation
+	 */
+	public synchronized long nmalloc(int alignment, int size) {
+		if ( DEBUG )
+			checkAlignment(alignment);
+		if ( CHECKS && size < 0 )
+			throw new IllegalArgumentException("Invalid allocation size.");
+
+		long address = (cursor + (alignment - 1)) & -alignment;
+		if ( cursor == NULL || end - address < size )
+			address = nextChunk(alignment, size);
+
+		cursor = address + size;
+		return address;
+	}
+
+	/** Moves to a retained chunk that can fit the specified allocation, or allocates a new chunk. Returns the aligned allocation address. */
+	private long nextChunk(int alignment, int size) {
+		while ( chunkIndex + 1 < chunkCount ) {
+			chunkIndex++;
+
+			long address = (chunks[chunkIndex] + (alignment - 1)) & -alignment;
+			end = chunkEnds[chunkIndex];
+			if ( size <= end - address )
+				return address;
+		}
+
+		long capacity = Math.max((long)chunkSize, (long)size + (alignment - 1));
+
+		long chunk = nmemAlloc(capacity);
+		if ( chunk == NULL )
+			throw new OutOfMemoryError("Failed to allocate arena chunk.");
+
+		if ( chunkCount == chunks.length ) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+			chunkEnds = Arrays.copyOf(chunkEnds, chunkEnds.length * 2);
+		}
+
+		chunkIndex = chunkCount++;
+		chunks[chunkIndex] = chunk;
+		chunkEnds[chunkIndex] = end = chunk + capacity;
+
+		return (chunk + (alignment - 1)) & -alignment;
+	}
+
+	/**
+	 * Allocates a block of memory in the arena for an array of {@code num} elements, each of them {@code size} bytes long, and initializes all its bits to
+	 * zero.
+	 *
+	 * @param alignment the required element alignment
+	 * @param num       the number of elements to allocate
+	 * @param size      the size of each element
+	 *
+	 * @return the memory address in the arena for the requested allocation
+	 *
+	 * @throws OutOfMemoryError if {@code num * size} does not fit in an {@code int}
+	 */
+	public long ncalloc(int alignment, int num, int size) {
+		if ( CHECKS && (num < 0 || size < 0) )
+			throw new IllegalArgumentException("Invalid allocation size.");
+
+		long bytes = (long)num * size;
+		if ( Integer.MAX_VALUE < bytes )
+			throw new OutOfMemoryError("Allocation size overflow: " + num + " * " + size + " bytes.");
+
+		long address = nmalloc(alignment, (int)bytes);
+		memSet(address, 0, bytes);
+		return address;
+	}
+
+	// -------------------------------------------------
+
+	/**
+	 * Allocates a {@link ByteBuffer} in the arena.
+	 *
+	 * @param size the number of elements in the buffer
+	 *
+	 * @return the allocated buffer
+	 */
+	public ByteBuffer malloc(int size) { return memByteBuffer(nmalloc(size), size); }
+	/** Calloc version of {@link #malloc(int)}. */
+	public ByteBuffer calloc(int size) { return memByteBuffer(ncalloc(1, size, 1), size); }
+
+	/** Vararg version of {@link #malloc}. */
+	public ByteBuffer bytes(byte... values) {
+		ByteBuffer buffer = malloc(values.length).put(values);
+		buffer.flip();
+		return buffer;
+	}
+
+	// -------------------------------------------------
+
+	/** Short version of {@link #malloc(int)}. */
+	public ShortBuffer mallocShort(int size) { return memShortBuffer(nmalloc(2, size << 1), size); }
+	/** Short version of {@link #calloc(int)}. */
+	public ShortBuffer callocShort(int size) { return memShortBuffer(ncalloc(2, size, 2), size); }
+
+	/** Vararg version of {@link #mallocShort}. */
+	public ShortBuffer shorts(short... values) {
+		ShortBuffer buffer = mallocShort(values.length).put(values);
+		buffer.flip();
+		return buffer;
+	}
+
+	// -------------------------------------------------
+
+	/** Int version of {@link #malloc(int)}. */
+	public IntBuffer mallocInt(int size) { return memIntBuffer(nmalloc(4, size << 2), size); }
+	/** Int version of {@link #calloc(int)}. */
+	public IntBuffer callocInt(int size) { return memIntBuffer(ncalloc(4, size, 4), size); }
+
+	/** Vararg version of {@link #mallocInt}. */
+	public IntBuffer ints(int... values) {
+		IntBuffer buffer = mallocInt(values.length).put(values);
+		buffer.flip();
+		return buffer;
+	}
+
+	// -------------------------------------------------
+
+	/** Long version of {@link #malloc(int)}. */
+	public LongBuffer mallocLong(int size) { return memLongBuffer(nmalloc(8, size << 3), size); }
+	/** Long version of {@link #calloc(int)}. */
+	public LongBuffer callocLong(int size) { return memLongBuffer(ncalloc(8, size, 8), size); }
+
+	/** Vararg version of {@link #mallocLong}. */
+	public LongBuffer longs(long... values) {
+		LongBuffer buffer = mallocLong(values.length).put(values);
+		buffer.flip();
+		return buffer;
+	}
+
+	// -------------------------------------------------
+
+	/** Float version of {@link #malloc(int)}. */
+	public FloatBuffer mallocFloat(int size) { return memFloatBuffer(nmalloc(4, size << 2), size); }
+	/** Float version of {@link #calloc(int)}. */
+	public FloatBuffer callocFloat(int size) { return memFloatBuffer(ncalloc(4, size, 4), size); }
+
+	/** Vararg version of {@link #mallocFloat}. */
+	public FloatBuffer floats(float... values) {
+		FloatBuffer buffer = mallocFloat(values.length).put(values);
+		buffer.flip();
+		return buffer;
+	}
+
+	// -------------------------------------------------
+
+	/** Double version of {@link #malloc(int)}. */
+	public DoubleBuffer mallocDouble(int size) { return memDoubleBuffer(nmalloc(8, size << 3), size); }
+	/** Double version of {@link #calloc(int)}. */
+	public DoubleBuffer callocDouble(int size) { return memDoubleBuffer(ncalloc(8, size, 8), size); }
+
+	/** Vararg version of {@link #mallocDouble}. */
+	public DoubleBuffer doubles(double... values) {
+		DoubleBuffer buffer = mallocDouble(values.length).put(values);
+		buffer.flip();
+		return buffer;
+	}
+
+	// -------------------------------------------------
+
+	/** Pointer version of {@link #malloc(int)}. */
+	public PointerBuffer mallocPointer(int size) { return memPointerBuffer(nmalloc(POINTER_SIZE, size << POINTER_SHIFT), size); }
+	/** Pointer version of {@link #calloc(int)}. */
+	public PointerBuffer callocPointer(int size) { return memPointerBuffer(ncalloc(POINTER_SIZE, size, POINTER_SIZE), size); }
+
+	/** Vararg version of {@link #mallocPointer}. */
+	public PointerBuffer pointers(long... values) {
+		PointerBuffer buffer = mallocPointer(values.length).put(values);
+		buffer.flip();
+		return buffer;
+	}
+
+	/** Vararg version of {@link #mallocPointer}. */
+	public PointerBuffer pointers(Pointer... values) {
+		PointerBuffer buffer = mallocPointer(values.length);
+		for ( int i = 0; i < values.length; i++ )
+			buffer.put(i, values[i]);
+		return buffer;
+	}
+
+	// -------------------------------------------------
+
+	/**
+	 * Encodes the specified text in the arena using ASCII encoding and returns a ByteBuffer that points to the encoded text, including a null-terminator.
+	 *
+	 * @param text the text to encode. If {@code text} is null, null is returned.
+	 */
+	public ByteBuffer ASCII(CharSequence text) {
+		return ASCII(text, true);
+	}
+
+	/**
+	 * Encodes the specified text in the arena using ASCII encoding and returns a ByteBuffer that points to the encoded text.
+	 *
+	 * @param text           the text to encode. If {@code text} is null, null is returned.
+	 * @param nullTerminated if true, a null-terminator is included at the end of the encoded text
+	 */
+	public ByteBuffer ASCII(CharSequence text, boolean nullTerminated) {
+		if ( text == null )
+			return null;
+
+		ByteBuffer encoded = malloc(memLengthASCII(text, nullTerminated));
+		memASCII(text, nullTerminated, encoded);
+		return encoded;
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF8 encoding and returns a ByteBuffer that points to the encoded text, including a null-terminator.
+	 *
+	 * @param text the text to encode. If {@code text} is null, null is returned.
+	 */
+	public ByteBuffer UTF8(CharSequence text) {
+		return UTF8(text, true);
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF8 encoding and returns a ByteBuffer that points to the encoded text.
+	 *
+	 * @param text           the text to encode. If {@code text} is null, null is returned.
+	 * @param nullTerminated if true, a null-terminator is included at the end of the encoded text
+	 */
+	public ByteBuffer UTF8(CharSequence text, boolean nullTerminated) {
+		if ( text == null )
+			return null;
+
+		ByteBuffer encoded = malloc(memLengthUTF8(text, nullTerminated));
+		memUTF8(text, nullTerminated, encoded);
+		return encoded;
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF16 encoding and returns a ByteBuffer that points to the encoded text, including a null-terminator.
+	 *
+	 * @param text the text to encode. If {@code text} is null, null is returned.
+	 */
+	public ByteBuffer UTF16(CharSequence text) {
+		return UTF16(text, true);
+	}
+
+	/**
+	 * Encodes the specified text in the arena using UTF16 encoding and returns a ByteBuffer that points to the encoded text.
+	 *
+	 * @param text           the text to encode. If {@code text} is null, null is returned.
+	 * @param nullTerminated if true, a null-terminator is included at the end of the encoded text
+	 */
+	public ByteBuffer UTF16(CharSequence text, boolean nullTerminated) {
+		if ( text == null )
+			return null;
+
+		ByteBuffer encoded = malloc(memLengthUTF16(text, nullTerminated));
+		memUTF16(text, nullTerminated, encoded);
+		return encoded;
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.PointerBuffer;
+
+import java.io.Closeable;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.lwjgl.system.APIUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Owns a block of memory allocated with the {@link MemoryUtil} explicit memory management API.
+ *
+ * <p>The memory is freed when {@link #close} is called. Unlike {@link org.lwjgl.BufferUtils BufferUtils} buffers, it does not count towards
+ * {@code -XX:MaxDirectMemorySize} and its release does not depend on the garbage collector.</p>
+ *
+ * <p>If a handle is not closed, its memory is freed after its {@link #buffer} becomes unreachable, as a safety net against leaks. Views that keep the
+ * buffer reachable, such as {@link ByteBuffer#slice slices}, {@link ByteBuffer#asIntBuffer typed views}, {@link PointerBuffer#create(ByteBuffer)
+ * PointerBuffer} instances and struct instances created with the buffer as their container, keep the memory alive too. Views created with an address,
+ * such as {@link MemoryUtil#memIntBuffer memIntBuffer(address(), ...)}, do not. Memory freed this way is reported in {@link Checks#DEBUG debug mode}.</p>
+ */
+public final class MemoryHandle implements Closeable {
+
+	private final ByteBuffer buffer;
+
+	private Cleanup cleanup;
+
+	private MemoryHandle(long address, int size) {
+		this.buffer = memByteBuffer(address, size);
+		this.cleanup = Cleanup.register(buffer, address, size);
+	}
+
+	/**
+	 * Returns a new handle that owns a block of memory allocated with {@link MemoryUtil#nmemAlloc nmemAlloc}.
+	 *
+	 * @param size the size of the memory block, in bytes
+	 *
+	 * @throws OutOfMemoryError if the allocation fails
+	 */
+	public static MemoryHandle malloc(int size) {
+		return create(nmemAlloc(size), size);
+	}
+
+	/**
+	 * Returns a new handle that owns a block of memory allocated with {@link MemoryUtil#nmemCalloc nmemCalloc}.
+	 *
+	 * @param num  the number of elements to allocate
+	 * @param size the size of each element
+	 *
+	 * @throws OutOfMemoryError if the allocation fails
+	 */
+	public static MemoryHandle calloc(int num, int size) {
+		long bytes = (long)num * size;
+		if ( Integer.MAX_VALUE < bytes )
+			throw new IllegalArgumentException("The memory block size is too large: " + bytes);
+
+		return create(nmemCalloc(num, size), (int)bytes);
+	}
+
+	private static MemoryHandle create(long address, int size) {
+		if ( address == NULL )
+			throw new OutOfMemoryError("Failed to allocate " + size + " bytes.");
+
+		return new MemoryHandle(address, size);
+	}
+
+	/** Returns the address of the memory block. */
+	public long address() {
+		checkOpen();
+		return memAddress0(buffer);
+	}
+
+	/** Returns the size of the memory block, in bytes. */
+	public int size() {
+		return buffer.capacity();
+	}
+
+	/** Returns true if the memory block has been freed. */
+	public boolean isClosed() {
+		return cleanup == null;
+	}
+
+	/**
+	 * Returns a {@link ByteBuffer} view of the memory block, with native byte order.
+	 *
+	 * <p>The buffer is shared by all callers, so its position and limit should not be modified. Use {@link ByteBuffer#duplicate} to get an independent
+	 * view.</p>
+	 */
+	public ByteBuffer buffer() {
+		checkOpen();
+		return buffer;
+	}
+
+	/** Returns a new {@link PointerBuffer} view of the memory block. The view keeps the memory block alive. */
+	public PointerBuffer pointerBuffer() {
+		return PointerBuffer.create(buffer());
+	}
+
+	private void checkOpen() {
+		if ( cleanup == null )
+			throw new IllegalStateException("The memory block has been freed.");
+	}
+
+	/** Frees the memory block. Does nothing if the memory block has already been freed. */
+	@Override
+	public void close() {
+		Cleanup cleanup;
+		synchronized ( this ) {
+			cleanup = this.cleanup;
+			this.cleanup = null;
+		}
+
+		if ( cleanup != null )
+			cleanup.free();
+	}
+
+	/** Frees the memory of handles whose buffer has become unreachable. */
+	private static final class Cleanup extends PhantomReference<ByteBuffer> {
+
+		private static final ReferenceQueue<ByteBuffer> QUEUE = new ReferenceQueue<ByteBuffer>();
+
+		/** Keeps the references reachable until they are processed. */
+		private static final Set<Cleanup> PENDING = Collections.newSetFromMap(new ConcurrentHashMap<Cleanup, Boolean>());
+
+		static {
+			Thread cleaner = new Thread("LWJGL Memory Cleaner") {
+				@Override
+				public void run() {
+					while ( true ) {
+						try {
+							Cleanup cleanup = (Cleanup)QUEUE.remove();
+							if ( PENDING.contains(cleanup) ) {
+								if ( Checks.DEBUG )
+									apiLog("[MemoryHandle] " + cleanup.size + " bytes at address 0x" + Long.toHexString(cleanup.address).toUpperCase() + " were not freed explicitly.");
+								cleanup.free();
+							}
+						} catch (InterruptedException e) {
+							return;
+						} catch (Throwable t) {
+							t.printStackTrace(DEBUG_STREAM);
+						}
+					}
+				}
+			};
+			cleaner.setDaemon(true);
+			cleaner.start();
+		}
+
+		private final long address;
+		private final int  size;
+
+		private Cleanup(ByteBuffer buffer, long address, int size) {
+			super(buffer, QUEUE);
+			this.address = address;
+			this.size = size;
+		}
+
+		static Cleanup register(ByteBuffer buffer, long address, int size) {
+			Cleanup cleanup = new Cleanup(buffer, address, size);
+			PENDING.add(cleanup);
+			return cleanup;
+		}
+
+		void free() {
+			if ( PENDING.remove(this) ) {
+				clear();
+				nmemFree(address, size);
+			}
+		}
+
+	}
+
+}
@@ -6,9 +6,9 @@ package org.lwjgl.system;
 
 import org.lwjgl.system.jemalloc.JEmalloc;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -16,7 +16,9 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.lwjgl.system.APIUtil.*;
 import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.ThreadLocalUtil.*;
 import static org.lwjgl.system.jemalloc.JEmalloc.*;
+import static org.lwjgl.system.linux.MMan.*;
 import static org.lwjgl.system.libc.Stdlib.*;
 
 /** Provides {@link MemoryAllocator} implementations for {@link MemoryUtil} to use. */
@@ -26,23 +28,26 @@ final class MemoryManage {
 	}
 
 	static MemoryAllocator getInstance() {
+		MemoryAllocator allocator = getConfiguredInstance();
+
+		int hugePageThreshold = Configuration.MEMORY_HUGE_PAGE_THRESHOLD.get(0);
+		if ( 0 < hugePageThreshold && Platform.get() == Platform.LINUX )
+			return new HugePageAllocator(allocator, (long)hugePageThreshold << 10);
+
+		return allocator;
+	}
+
+	private static MemoryAllocator getConfiguredInstance() {
 		Object allocator = Configuration.MEMORY_ALLOCATOR.get("jemalloc");
 		if ( allocator instanceof MemoryAllocator )
 			return (MemoryAllocator)allocator;
 
 		if ( "jemalloc".equals(allocator) ) {
-			try {
-				// check if the jemalloc library is available
-				Class.forName("org.lwjgl.system.jemalloc.JEmalloc").getMethod("getLibrary").invoke(null);
-				return new JEmallocAllocator();
-			} catch (Throwable t) {
-				if ( Checks.DEBUG )
-					t.printStackTrace(DEBUG_STREAM);
-				apiLog("[MemoryAllocator] Failed to load the jemalloc library.");
-				return new StdlibAllocator();
-			}
+			return getJEmallocInstance();
 		} else if ( "system".equals(allocator) ) {
 			return new StdlibAllocator();
+		} else if ( "pooled".equals(allocator) ) {
+			return new PooledAllocator(getJEmallocInstance());
 		} else {
 			try {
 				return (MemoryAllocator)Class.forName(allocator.toString()).newInstance();
@@ -52,6 +57,35 @@ final class MemoryManage {
 		}
 	}
 
+	/** Implemented by allocators that can report the usable size of an allocation. */
+	interface UsableSize {
+		/** Returns the usable size of the specified allocation. */
+		long usable_size(long ptr);
+	}
+
+	/** Returns the {@link UsableSize} implementation of the specified allocator, or null if it cannot report the usable size of all its allocations. */
+	static UsableSize getUsableSize(MemoryAllocator allocator) {
+		if ( allocator instanceof PooledAllocator )
+			return ((PooledAllocator)allocator).allocator instanceof UsableSize ? (UsableSize)allocator : null;
+		if ( allocator instanceof HugePageAllocator )
+			return ((HugePageAllocator)allocator).usableSize != null ? (UsableSize)allocator : null;
+
+		return allocator instanceof UsableSize ? (UsableSize)allocator : null;
+	}
+
+	private static MemoryAllocator getJEmallocInstance() {
+		try {
+			// check if the jemalloc library is available
+			Class.forName("org.lwjgl.system.jemalloc.JEmalloc").getMethod("getLibrary").invoke(null);
+			return new JEmallocAllocator();
+		} catch (Throwable t) {
+			if ( Checks.DEBUG )
+				t.printStackTrace(DEBUG_STREAM);
+			apiLog("[MemoryAllocator] Failed to load the jemalloc library.");
+			return new StdlibAllocator();
+		}
+	}
+
 	/** stdlib memory allocator. */
 	private static class StdlibAllocator implements MemoryAllocator {
 
@@ -93,7 +127,7 @@ final class MemoryManage {
 	}
 
 	/** jemalloc memory allocator. */
-	private static class JEmallocAllocator implements MemoryAllocator {
+	private static class JEmallocAllocator implements SizedMemoryAllocator, UsableSize {
 
 		@Override
 		public void config(long malloc, long calloc, long realloc, long free, long aligned_alloc, long aligned_free) {
@@ -126,6 +160,20 @@ final class MemoryManage {
 			nje_free(ptr);
 		}
 
+		@Override
+		public void free(long ptr, long size) {
+			// A size in a different size class than the allocation corrupts the jemalloc heap
+			if ( Checks.DEBUG && nje_nallocx(size, 0) != nje_sallocx(ptr, 0) )
+				throw new IllegalArgumentException("The size specified does not match the size of the allocation: " + size);
+
+			nje_sdallocx(ptr, size, 0);
+		}
+
+		@Override
+		public long realloc_in_place(long ptr, long size) {
+			return nje_xallocx(ptr, size, 0L, 0);
+		}
+
 		@Override
 		public long aligned_alloc(long alignment, long size) {
 			return nje_aligned_alloc(alignment, size);
@@ -136,61 +184,899 @@ final class MemoryManage {
 			nje_free(ptr);
 		}
 
+		@Override
+		public long usable_size(long ptr) {
+			return nje_malloc_usable_size(ptr);
+		}
+
 	}
 
-	// TODO: evaluate performance and optimize
+	/**
+	 * Size-class pooling memory allocator.
+	 *
+	 * <p>Allocations up to {@link #MAX_POOLED_SIZE} bytes are rounded up to a multiple of 16 bytes and served from per-thread free lists, one per size class.
+	 * The free lists are intrusive (the next pointer is stored in the free block itself) and are accessed without synchronization. When a thread's free list
+	 * is empty, a batch of blocks is moved from a shared, per-class, free list, or carved from a new slab. When it is full, half of it is moved back to the
+	 * shared free list. Slabs are allocated from the underlying allocator and are never released.</p>
+	 *
+	 * <p>Larger allocations, aligned allocations and pointers that were not allocated by the pool are handled by the underlying allocator. The function
+	 * pointers used by native code are also those of the underlying allocator, so memory allocated with this allocator must be freed from Java code.</p>
+	 */
+	static class PooledAllocator implements SizedMemoryAllocator, UsableSize {
 
-	/** Wraps a MemoryAllocator to track allocations and detect memory leaks. */
-	static class DebugAllocator implements MemoryAllocator {
+		/** The maximum allocation size served by the pool. */
+		static final int MAX_POOLED_SIZE = 256;
 
-		private static final ConcurrentMap<Long, Allocation> ALLOCATIONS = new ConcurrentHashMap<Long, Allocation>();
-		private static final ConcurrentMap<Long, String>     THREADS     = new ConcurrentHashMap<Long, String>();
+		private static final int CLASS_SHIFT = 4;
+		private static final int CLASS_COUNT = MAX_POOLED_SIZE >>> CLASS_SHIFT;
+
+		private static final int SLAB_SHIFT = 16;
+		private static final int SLAB_SIZE  = 1 << SLAB_SHIFT;
+		private static final long SLAB_MASK = SLAB_SIZE - 1;
+
+		/** The maximum number of blocks in a thread's free list, per size class. */
+		private static final int CACHE_CAPACITY = 64;
 
 		private final MemoryAllocator allocator;
 
-		DebugAllocator(MemoryAllocator allocator) {
+		private final ThreadLocal<Cache> caches = new ThreadLocal<Cache>() {
+			@Override
+			protected Cache initialValue() {
+				Cache cache = new Cache(Thread.currentThread());
+				synchronized ( threadCaches ) {
+					threadCaches.add(cache);
+				}
+				return cache;
+			}
+		};
+
+		/** All thread caches, used to reclaim the blocks of terminated threads. */
+		private final List<Cache> threadCaches = new ArrayList<Cache>();
+
+		private final Central[] central;
+
+		/**
+		 * Open-addressing hash table that maps slab addresses to size classes. Each entry is the slab address with the size class index stored in the low
+		 * bits, 0 means empty. It is copied on write, so that lookups do not require synchronization.
+		 */
+		private volatile long[] slabs = new long[64];
+		private int slabCount;
+
+		PooledAllocator(MemoryAllocator allocator) {
 			this.allocator = allocator;
 
+			central = new Central[CLASS_COUNT];
+			for ( int i = 0; i < CLASS_COUNT; i++ )
+				central[i] = new Central((i + 1) << CLASS_SHIFT);
+		}
+
+		@Override
+		public void config(long malloc, long calloc, long realloc, long free, long aligned_alloc, long aligned_free) {
+			allocator.config(malloc, calloc, realloc, free, aligned_alloc, aligned_free);
+		}
+
+		@Override
+		public long malloc(long size) {
+			if ( size < 0 || MAX_POOLED_SIZE < size )
+				return allocator.malloc(size);
+
+			int sizeClass = size == 0 ? 0 : (int)((size - 1) >>> CLASS_SHIFT);
+
+			Cache cache = caches.get();
+
+			long block = cache.heads[sizeClass];
+			if ( block == NULL )
+				return refill(cache, sizeClass);
+
+			cache.heads[sizeClass] = memGetAddress(block);
+			cache.counts[sizeClass]--;
+			return block;
+		}
+
+		@Override
+		public long calloc(long num, long size) {
+			long bytes = num * size;
+			if ( num < 0 || size < 0 || MAX_POOLED_SIZE < bytes || (size != 0 && bytes / size != num) )
+				return allocator.calloc(num, size);
+
+			long block = malloc(bytes);
+			if ( block != NULL )
+				memSet(block, 0, bytes);
+			return block;
+		}
+
+		@Override
+		public long realloc(long ptr, long size) {
+			if ( ptr == NULL )
+				return malloc(size);
+
+			int sizeClass = getSizeClass(ptr);
+			if ( sizeClass == -1 )
+				return allocator.realloc(ptr, size);
+
+			int blockSize = (sizeClass + 1) << CLASS_SHIFT;
+			if ( 0 < size && size <= blockSize && (blockSize >>> 1) < size )
+				return ptr;
+
+			long block = malloc(size);
+			if ( block != NULL ) {
+				memCopy(ptr, block, Math.min(size, blockSize));
+				free(ptr, sizeClass);
+			}
+			return block;
+		}
+
+		@Override
+		public void free(long ptr) {
+			if ( ptr == NULL )
+				return;
+
+			int sizeClass = getSizeClass(ptr);
+			if ( sizeClass == -1 )
+				allocator.free(ptr);
+			else
+				free(ptr, sizeClass);
+		}
+
+		@Override
+		public void free(long ptr, long size) {
+			int sizeClass = getSizeClass(ptr);
+			if ( sizeClass != -1 )
+				free(ptr, sizeClass);
+			else if ( allocator instanceof SizedMemoryAllocator )
+				((SizedMemoryAllocator)allocator).free(ptr, size);
+			else
+				allocator.free(ptr);
+		}
+
+		@Override
+		public long realloc_in_place(long ptr, long size) {
+			// Pooled blocks have a fixed size
+			if ( getSizeClass(ptr) != -1 )
+				return 0L;
+
+			return allocator instanceof SizedMemoryAllocator ? ((SizedMemoryAllocator)allocator).realloc_in_place(ptr, size) : 0L;
+		}
+
+		private void free(long ptr, int sizeClass) {
+			Cache cache = caches.get();
+
+			if ( cache.counts[sizeClass] == CACHE_CAPACITY )
+				flush(cache, sizeClass);
+
+			memPutAddress(ptr, cache.heads[sizeClass]);
+			cache.heads[sizeClass] = ptr;
+			cache.counts[sizeClass]++;
+		}
+
+		@Override
+		public long aligned_alloc(long alignment, long size) {
+			return allocator.aligned_alloc(alignment, size);
+		}
+
+		@Override
+		public void aligned_free(long ptr) {
+			allocator.aligned_free(ptr);
+		}
+
+		@Override
+		public long usable_size(long ptr) {
+			int sizeClass = getSizeClass(ptr);
+			if ( sizeClass != -1 )
+				return (sizeClass + 1) << CLASS_SHIFT;
+
+			return allocator instanceof UsableSize ? ((UsableSize)allocator).usable_size(ptr) : 0L;
+		}
+
+		/** Returns the size class of the specified block, or -1 if it was not allocated by the pool. */
+		private int getSizeClass(long ptr) {
+			long[] slabs = this.slabs;
+
+			long slab = ptr & ~SLAB_MASK;
+			int mask = slabs.length - 1;
+			for ( int i = hash(slab) & mask; ; i = (i + 1) & mask ) {
+				long entry = slabs[i];
+				if ( entry == 0L )
+					return -1;
+				if ( (entry & ~SLAB_MASK) == slab )
+					return (int)(entry & SLAB_MASK);
+			}
+		}
+
+		private static int hash(long slab) {
+			long h = (slab >>> SLAB_SHIFT) * 0x9E3779B97F4A7C15L;
+			return (int)(h >>> 32);
+		}
+
+		/** Moves a batch of blocks to the thread's free list and returns one of them. */
+		private long refill(Cache cache, int sizeClass) {
+			Central c = central[sizeClass];
+
+			long head;
+			int count;
+			synchronized ( c ) {
+				if ( c.head == NULL )
+					reclaim(sizeClass);
+
+				if ( c.head != NULL ) {
+					// Take up to half the cache capacity from the shared free list
+					head = c.head;
+					long tail = head;
+					count = 1;
+					while ( count < CACHE_CAPACITY / 2 ) {
+						long next = memGetAddress(tail);
+						if ( next == NULL )
+							break;
+						tail = next;
+						count++;
+					}
+					c.head = memGetAddress(tail);
+					c.count -= count;
+					memPutAddress(tail, NULL);
+				} else {
+					// Carve from the current slab
+					if ( c.slabEnd - c.slabNext < c.blockSize && !newSlab(c, sizeClass) )
+						return NULL;
+
+					head = NULL;
+					count = 0;
+					while ( count < CACHE_CAPACITY / 2 && c.blockSize <= c.slabEnd - c.slabNext ) {
+						memPutAddress(c.slabNext, head);
+						head = c.slabNext;
+						c.slabNext += c.blockSize;
+						count++;
+					}
+				}
+			}
+
+			cache.heads[sizeClass] = memGetAddress(head);
+			cache.counts[sizeClass] = count - 1;
+			return head;
+		}
+
+		/** Moves half the blocks of the thread's free list to the shared free list. */
+		private void flush(Cache cache, int sizeClass) {
+			long head = cache.heads[sizeClass];
+			long tail = head;
+			for ( int i = 1; i < CACHE_CAPACITY / 2; i++ )
+				tail = memGetAddress(tail);
+
+			cache.heads[sizeClass] = memGetAddress(tail);
+			cache.counts[sizeClass] -= CACHE_CAPACITY / 2;
+
+			Central c = central[sizeClass];
+			synchronized ( c ) {
+				memPutAddress(tail, c.head);
+				c.head = head;
+				c.count += CACHE_CAPACITY / 2;
+			}
+		}
+
+		/** Moves the free blocks of terminated threads to the shared free list. Must be called while holding the lock of the size class. */
+		private void reclaim(int sizeClass) {
+			synchronized ( threadCaches ) {
+				for ( Cache cache : threadCaches ) {
+					Thread thread = cache.get();
+					if ( thread != null && thread.isAlive() )
+						continue;
+
+					long head = cache.heads[sizeClass];
+					if ( head == NULL )
+						continue;
+
+					long tail = head;
+					for ( long next; (next = memGetAddress(tail)) != NULL; )
+						tail = next;
+
+					Central c = central[sizeClass];
+					memPutAddress(tail, c.head);
+					c.head = head;
+					c.count += cache.counts[sizeClass];
+
+					cache.heads[sizeClass] = NULL;
+					cache.counts[sizeClass] = 0;
+				}
+
+				// Forget caches that are fully drained
+				for ( Iterator<Cache> it = threadCaches.iterator(); it.hasNext(); ) {
+					Cache cache = it.next();
+					Thread thread = cache.get();
+					if ( (thread == null || !thread.isAlive()) && cache.isEmpty() )
+						it.remove();
+				}
+			}
+		}
+
+		/** Allocates a new slab for the specified size class. Must be called while holding the lock of the size class. */
+		private boolean newSlab(Central c, int sizeClass) {
+			long slab = allocator.aligned_alloc(SLAB_SIZE, SLAB_SIZE);
+			if ( slab == NULL )
+				return false;
+
+			synchronized ( this ) {
+				long[] slabs = this.slabs;
+				if ( slabs.length <= (slabCount + 1) * 2 ) {
+					long[] resized = new long[slabs.length * 2];
+					for ( long entry : slabs ) {
+						if ( entry != 0L )
+							insert(resized, entry);
+					}
+					slabs = resized;
+				} else
+					slabs = slabs.clone();
+
+				insert(slabs, slab | sizeClass);
+				slabCount++;
+
+				this.slabs = slabs;
+			}
+
+			c.slabNext = slab;
+			c.slabEnd = slab + SLAB_SIZE;
+			return true;
+		}
+
+		private static void insert(long[] slabs, long entry) {
+			int mask = slabs.length - 1;
+
+			int i = hash(entry & ~SLAB_MASK) & mask;
+			while ( slabs[i] != 0L )
+				i = (i + 1) & mask;
+
+			slabs[i] = entry;
+		}
+
+		/** The shared state of a size class. */
+		private static final class Central {
+
+			final int blockSize;
+
+			long head;
+			int  count;
+
+			long slabNext;
+			long slabEnd;
+
+			Central(int blockSize) {
+				this.blockSize = blockSize;
+			}
+
+		}
+
+		/** The free lists of a thread. The owner thread is referenced weakly. */
+		private static final class Cache extends WeakReference<Thread> {
+
+			final long[] heads  = new long[CLASS_COUNT];
+			final int[]  counts = new int[CLASS_COUNT];
+
+			Cache(Thread thread) {
+				super(thread);
+			}
+
+			boolean isEmpty() {
+				for ( long head : heads ) {
+					if ( head != NULL )
+						return false;
+				}
+				return true;
+			}
+
+		}
+
+	}
+
+	/**
+	 * Serves allocations above a size threshold directly with {@code mmap}, aligned to the huge page size and advised with {@code MADV_HUGEPAGE}. Smaller
+	 * allocations are handled by the underlying allocator. Linux only.
+	 *
+	 * <p>If transparent huge pages are disabled, or if the kernel cannot find free huge pages, the mappings are backed by normal pages. Mappings are
+	 * tracked by address, so that {@link #free} can tell them apart from allocations of the underlying allocator. The function pointers used by native code
+	 * are those of the underlying allocator, so memory allocated with this allocator must be freed from Java code.</p>
+	 *
+	 * @see Configuration#MEMORY_HUGE_PAGE_THRESHOLD
+	 */
+	static class HugePageAllocator implements SizedMemoryAllocator, UsableSize {
+
+		/** The transparent huge page size on x86-64 and on ARM64 with 4KB pages. */
+		static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
+		private final MemoryAllocator allocator;
+
+		final UsableSize usableSize;
+
+		private final long threshold;
+
+		/** The live mappings, address to length. */
+		private final ConcurrentMap<Long, Long> mappings = new ConcurrentHashMap<Long, Long>();
+
+		HugePageAllocator(MemoryAllocator allocator, long threshold) {
+			this.allocator = allocator;
+			this.usableSize = getUsableSize(allocator);
+			this.threshold = threshold;
+		}
+
+		@Override
+		public void config(long malloc, long calloc, long realloc, long free, long aligned_alloc, long aligned_free) {
+			allocator.config(malloc, calloc, realloc, free, aligned_alloc, aligned_free);
+		}
+
+		/** Returns a new mapping of at least {@code size} bytes, aligned to {@link #HUGE_PAGE_SIZE}, or {@link MemoryUtil#NULL} if mmap fails. */
+		private long map(long size) {
+			if ( Long.MAX_VALUE - 2 * HUGE_PAGE_SIZE < size )
+				return NULL;
+
+			long length = (size + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+
+			// Over-allocate by one huge page and trim the unaligned head and tail
+			long address = mmap(NULL, length + HUGE_PAGE_SIZE, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS, -1, 0L);
+			if ( address == MAP_FAILED )
+				return NULL;
+
+			long aligned = (address + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+			if ( address != aligned )
+				munmap(address, aligned - address);
+			if ( aligned - address != HUGE_PAGE_SIZE )
+				munmap(aligned + length, HUGE_PAGE_SIZE - (aligned - address));
+
+			// Fails if transparent huge pages are not supported, the mapping is still usable
+			madvise(aligned, length, MADV_HUGEPAGE);
+
+			mappings.put(aligned, length);
+			return aligned;
+		}
+
+		/** Returns the length of the mapping at {@code ptr}, or null if {@code ptr} was not allocated with {@link #map}. */
+		private Long getLength(long ptr) {
+			// Mappings are aligned to HUGE_PAGE_SIZE, skip the boxing and the lookup for anything else
+			return (ptr & (HUGE_PAGE_SIZE - 1)) != 0L || ptr == NULL ? null : mappings.get(ptr);
+		}
+
+		private void unmap(long address, long length) {
+			mappings.remove(address);
+			munmap(address, length);
+		}
+
+		@Override
+		public long malloc(long size) {
+			if ( size < threshold )
+				return allocator.malloc(size);
+
+			long address = map(size);
+			return address != NULL ? address : allocator.malloc(size);
+		}
+
+		@Override
+		public long calloc(long num, long size) {
+			long bytes = num * size;
+			if ( bytes < threshold || (num != 0L && bytes / num != size) )
+				return allocator.calloc(num, size);
+
+			// Anonymous mappings are zero-filled
+			long address = map(bytes);
+			return address != NULL ? address : allocator.calloc(num, size);
+		}
+
+		@Override
+		public long realloc(long ptr, long size) {
+			Long length = getLength(ptr);
+			if ( length == null ) {
+				// Blocks of the underlying allocator can only be moved to a mapping if their size is known
+				if ( size < threshold || (ptr != NULL && usableSize == null) )
+					return allocator.realloc(ptr, size);
+
+				long address = map(size);
+				if ( address == NULL )
+					return allocator.realloc(ptr, size);
+
+				if ( ptr != NULL ) {
+					memCopy(ptr, address, Math.min(usableSize.usable_size(ptr), size));
+					allocator.free(ptr);
+				}
+				return address;
+			}
+
+			if ( size == 0L ) {
+				unmap(ptr, length);
+				return NULL;
+			}
+
+			if ( threshold <= size && size <= length ) {
+				// Shrink in place, by whole huge pages
+				long newLength = (size + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+				if ( newLength < length ) {
+					munmap(ptr + newLength, length - newLength);
+					mappings.put(ptr, newLength);
+				}
+				return ptr;
+			}
+
+			long address = size < threshold ? allocator.malloc(size) : map(size);
+			if ( address == NULL )
+				return NULL;
+
+			memCopy(ptr, address, Math.min(length, size));
+			unmap(ptr, length);
+			return address;
+		}
+
+		@Override
+		public void free(long ptr) {
+			Long length = getLength(ptr);
+			if ( length != null )
+				unmap(ptr, length);
+			else
+				allocator.free(ptr);
+		}
+
+		@Override
+		public void free(long ptr, long size) {
+			Long length = getLength(ptr);
+			if ( length != null )
+				unmap(ptr, length);
+			else if ( allocator instanceof SizedMemoryAllocator )
+				((SizedMemoryAllocator)allocator).free(ptr, size);
+			else
+				allocator.free(ptr);
+		}
+
+		@Override
+		public long realloc_in_place(long ptr, long size) {
+			Long length = getLength(ptr);
+			if ( length != null )
+				// Mappings are not shrunk in place, and growing a mapping always fails
+				return size <= length ? 0L : length;
+
+			return allocator instanceof SizedMemoryAllocator ? ((SizedMemoryAllocator)allocator).realloc_in_place(ptr, size) : 0L;
+		}
+
+		@Override
+		public long aligned_alloc(long alignment, long size) {
+			if ( size < threshold || HUGE_PAGE_SIZE < alignment )
+				return allocator.aligned_alloc(alignment, size);
+
+			long address = map(size);
+			return address != NULL ? address : allocator.aligned_alloc(alignment, size);
+		}
+
+		@Override
+		public void aligned_free(long ptr) {
+			Long length = getLength(ptr);
+			if ( length != null )
+				unmap(ptr, length);
+			else
+				allocator.aligned_free(ptr);
+		}
+
+		@Override
+		public long usable_size(long ptr) {
+			Long length = getLength(ptr);
+			return length != null ? length : usableSize.usable_size(ptr);
+		}
+
+	}
+
+	/**
+	 * An off-heap hash table of live allocations, keyed by address, with linear probing and backward shift deletion.
+	 *
+	 * <p>Each entry is {@code ENTRY_SIZE} bytes: the allocation address (0 for empty entries), the allocation size, the allocating thread id, the stack
+	 * trace id and the allocation tag. The table is allocated with the system allocator. The live bytes and allocations of each tag are also counted.</p>
+	 *
+	 * <p>Tables are used in stripes of {@code 1 << STRIPE_BITS}. The stripe of an address is selected by the low bits of its {@link #hash}, the remaining
+	 * bits are passed to the table.</p>
+	 */
+	static final class AllocationTable {
+
+		static final int STRIPE_BITS = 4;
+		static final int STRIPE_MASK = (1 << STRIPE_BITS) - 1;
+
+		private static final int ENTRY_SIZE = 32;
+
+		private static final int ADDRESS   = 0;
+		private static final int SIZE      = 8;
+		private static final int THREAD_ID = 16;
+		private static final int TRACE_ID  = 24;
+		private static final int TAG       = 28;
+
+		static final int INITIAL_CAPACITY = 256;
+
+		private long table;
+		private int  mask;
+		private int  count;
+
+		/** The live bytes and allocations per allocation tag. */
+		private final long[] tagBytes  = new long[MEM_TAG_COUNT];
+		private final long[] tagCounts = new long[MEM_TAG_COUNT];
+
+		/** @param capacity the initial table capacity, a power-of-two */
+		AllocationTable(int capacity) {
+			table = allocate(capacity);
+			mask = capacity - 1;
+		}
+
+		/** Creates a full set of stripes. */
+		static AllocationTable[] createStripes() {
+			AllocationTable[] stripes = new AllocationTable[1 << STRIPE_BITS];
+			for ( int i = 0; i < stripes.length; i++ )
+				stripes[i] = new AllocationTable(INITIAL_CAPACITY);
+			return stripes;
+		}
+
+		static int hash(long address) {
+			long h = address * 0x9E3779B97F4A7C15L;
+			return (int)(h >>> 32);
+		}
+
+		private static long allocate(int capacity) {
+			long table = ncalloc(capacity, ENTRY_SIZE);
+			if ( table == NULL )
+				throw new OutOfMemoryError("Failed to allocate the debug allocator table.");
+			return table;
+		}
+
+		private long entry(int index) {
+			return table + (long)index * ENTRY_SIZE;
+		}
+
+		synchronized boolean put(int hash, long address, long size, long threadId, int traceId, int tag) {
+			if ( mask < (count + 1) * 2 )
+				resize();
+
+			int i = hash & mask;
+			for ( long entry; ; i = (i + 1) & mask ) {
+				entry = entry(i);
+
+				long key = memGetAddress(entry + ADDRESS);
+				if ( key == NULL ) {
+					memPutAddress(entry + ADDRESS, address);
+					memPutLong(entry + SIZE, size);
+					memPutLong(entry + THREAD_ID, threadId);
+					memPutInt(entry + TRACE_ID, traceId);
+					memPutInt(entry + TAG, tag);
+
+					count++;
+					tagBytes[tag] += size;
+					tagCounts[tag]++;
+					return true;
+				}
+
+				if ( key == address )
+					return false;
+			}
+		}
+
+		/** Returns the size of the specified address, or -1 if the address was not found. */
+		synchronized long get(int hash, long address) {
+			for ( int i = hash & mask; ; i = (i + 1) & mask ) {
+				long entry = entry(i);
+
+				long key = memGetAddress(entry + ADDRESS);
+				if ( key == NULL )
+					return -1L;
+				if ( key == address )
+					return memGetLong(entry + SIZE);
+			}
+		}
+
+		/** Removes the specified address and returns its allocation tag, or -1 if the address was not found. */
+		synchronized int remove(int hash, long address) {
+			int i = hash & mask;
+			for ( ; ; i = (i + 1) & mask ) {
+				long key = memGetAddress(entry(i) + ADDRESS);
+				if ( key == NULL )
+					return -1;
+				if ( key == address )
+					break;
+			}
+
+			int tag = memGetInt(entry(i) + TAG);
+			tagBytes[tag] -= memGetLong(entry(i) + SIZE);
+			tagCounts[tag]--;
+
+			// Shift back the entries that follow, until an empty entry or an entry at its home slot is reached
+			for ( int j = i; ; ) {
+				j = (j + 1) & mask;
+
+				long key = memGetAddress(entry(j) + ADDRESS);
+				if ( key == NULL )
+					break;
+
+				int home = (hash(key) >>> STRIPE_BITS) & mask;
+				if ( i <= j ? (i < home && home <= j) : (i < home || home <= j) )
+					continue;
+
+				memCopy(entry(j), entry(i), ENTRY_SIZE);
+				i = j;
+			}
+
+			memSet(entry(i), 0, ENTRY_SIZE);
+			count--;
+
+			return tag;
+		}
+
+		synchronized long getTagBytes(int tag) {
+			return tagBytes[tag];
+		}
+
+		/** Adds the live bytes and allocations of each tag to the specified arrays. */
+		private synchronized void getTags(long[] bytes, long[] counts) {
+			for ( int i = 0; i < MEM_TAG_COUNT; i++ ) {
+				bytes[i] += tagBytes[i];
+				counts[i] += tagCounts[i];
+			}
+		}
+
+		/** Returns the live bytes of the specified tag, over all stripes. */
+		static long getTagBytes(AllocationTable[] stripes, int tag) {
+			long bytes = 0L;
+			for ( AllocationTable stripe : stripes )
+				bytes += stripe.getTagBytes(tag);
+			return bytes;
+		}
+
+		/** Reports the live bytes and allocations of each tag that has live allocations, over all stripes. */
+		static void report(AllocationTable[] stripes, MemoryTagReport report) {
+			long[] bytes = new long[MEM_TAG_COUNT];
+			long[] counts = new long[MEM_TAG_COUNT];
+			for ( AllocationTable stripe : stripes )
+				stripe.getTags(bytes, counts);
+
+			for ( int tag = 0; tag < MEM_TAG_COUNT; tag++ ) {
+				if ( counts[tag] != 0L )
+					report.invoke(tag, bytes[tag], counts[tag]);
+			}
+		}
+
+		/** Returns the number of entries. */
+		synchronized int size() {
+			return count;
+		}
+
+		/** Returns the table capacity. */
+		synchronized int capacity() {
+			return mask + 1;
+		}
+
+		/** Frees the table. The stripe must not be used afterwards. */
+		synchronized void free() {
+			nfree(table);
+			table = NULL;
+		}
+
+		private void resize() {
+			int capacity = (mask + 1) * 2;
+
+			long old = table;
+			int oldCapacity = mask + 1;
+
+			table = allocate(capacity);
+			mask = capacity - 1;
+
+			for ( int i = 0; i < oldCapacity; i++ ) {
+				long src = old + (long)i * ENTRY_SIZE;
+
+				long key = memGetAddress(src + ADDRESS);
+				if ( key == NULL )
+					continue;
+
+				int j = (hash(key) >>> STRIPE_BITS) & mask;
+				while ( memGetAddress(entry(j) + ADDRESS) != NULL )
+					j = (j + 1) & mask;
+
+				memCopy(src, entry(j), ENTRY_SIZE);
+			}
+
+			nfree(old);
+		}
+
+		synchronized void snapshot(DebugAllocator.Snapshot snapshot) {
+			snapshot.ensureCapacity(snapshot.count + count);
+
+			for ( int i = 0; i <= mask; i++ ) {
+				long entry = entry(i);
+
+				long key = memGetAddress(entry + ADDRESS);
+				if ( key == NULL )
+					continue;
+
+				int n = snapshot.count++;
+				snapshot.addresses[n] = key;
+				snapshot.sizes[n] = memGetLong(entry + SIZE);
+				snapshot.threadIds[n] = memGetLong(entry + THREAD_ID);
+				snapshot.traceIds[n] = memGetInt(entry + TRACE_ID);
+			}
+		}
+
+	}
+
+	/**
+	 * Wraps a MemoryAllocator to track allocations and detect memory leaks.
+	 *
+	 * <p>Live allocations are stored in off-heap, open-addressing hash tables, keyed by address. The tables are striped, so that allocations and frees from
+	 * different threads rarely contend on the same lock. Each entry records the allocation size, the allocating thread and the id of the allocation stack
+	 * trace and the allocation tag. Stack traces are interned, so that identical traces are stored once, and may be sampled with
+	 * {@link Configuration#DEBUG_MEMORY_ALLOCATOR_SAMPLING} to reduce the cost of capturing them.</p>
+	 *
+	 * <p>The allocation tag is read from the current thread (see {@link MemoryUtil#memSetTag}). The live bytes of each tag are also counted per stripe.</p>
+	 */
+	static class DebugAllocator implements SizedMemoryAllocator {
+
+		/** The stack trace of one in {@code SAMPLING} allocations is captured. */
+		static final int SAMPLING = Configuration.DEBUG_MEMORY_ALLOCATOR_SAMPLING.get(1);
+
+		private static final AllocationTable[] STRIPES = AllocationTable.createStripes();
+
+		/** The id of each interned stack trace. Id 0 means that the stack trace was not captured. */
+		private static final ConcurrentMap<StackTrace, Integer> TRACE_IDS = new ConcurrentHashMap<StackTrace, Integer>();
+		private static volatile StackTraceElement[][] traces = new StackTraceElement[64][];
+		private static int traceCount = 1;
+
+		private static final ConcurrentMap<Long, String> THREADS = new ConcurrentHashMap<Long, String>();
+
+		private static final ThreadLocal<Boolean> THREAD_REGISTERED = new ThreadLocal<Boolean>();
+
+		/** Racy allocation counter, used for sampling. */
+		private static int sampleCounter;
+
+		static {
+			if ( SAMPLING < 1 )
+				throw new IllegalStateException("Invalid " + Configuration.DEBUG_MEMORY_ALLOCATOR_SAMPLING.getProperty() + " specified.");
+
 			Runtime.getRuntime().addShutdownHook(new Thread() {
 				@Override
 				public void run() {
-					if ( ALLOCATIONS.isEmpty() )
-						return;
-
-					for ( Entry<Long, Allocation> entry : ALLOCATIONS.entrySet() ) {
-						Long address = entry.getKey();
-						Allocation allocation = entry.getValue();
-
-						DEBUG_STREAM.format(
-							"[LWJGL] %d bytes leaked, thread %d (%s), address: 0x%s\n",
-							allocation.size,
-							allocation.threadId,
-							THREADS.get(allocation.threadId),
-							Long.toHexString(address).toUpperCase()
-						);
-						for ( StackTraceElement el : allocation.stackTrace )
-							DEBUG_STREAM.format("\tat %s\n", el.toString());
-					}
+					reportLeaks(DEBUG_STREAM);
 				}
 			});
 		}
 
+		private final MemoryAllocator allocator;
+
+		DebugAllocator(MemoryAllocator allocator) {
+			this.allocator = allocator;
+		}
+
+		/** Prints all live allocations, with their stack trace, to the specified stream. Called at shutdown. */
+		static void reportLeaks(PrintStream out) {
+			Snapshot snapshot = new Snapshot();
+			for ( int i = 0; i < snapshot.count; i++ ) {
+				out.format(
+					"[LWJGL] %d bytes leaked, thread %d (%s), address: 0x%s\n",
+					snapshot.sizes[i],
+					snapshot.threadIds[i],
+					THREADS.get(snapshot.threadIds[i]),
+					Long.toHexString(snapshot.addresses[i]).toUpperCase()
+				);
+
+				StackTraceElement[] stackTrace = getInternedStackTrace(snapshot.traceIds[i]);
+				if ( stackTrace == null )
+					out.println("\t(stack trace not sampled)");
+				else {
+					for ( StackTraceElement el : stackTrace )
+						out.format("\tat %s\n", el.toString());
+				}
+			}
+		}
+
 		@Override
 		public long malloc(long size) {
-			return track(allocator.malloc(size), size);
+			return track(allocator.malloc(size), size, tlsGet().memoryTag);
 		}
 
 		@Override
 		public long calloc(long num, long size) {
-			return track(allocator.calloc(num, size), num * size);
+			return track(allocator.calloc(num, size), num * size, tlsGet().memoryTag);
 		}
 
 		@Override
 		public long realloc(long ptr, long size) {
 			long address = allocator.realloc(ptr, size);
-			if ( address != NULL )
-				untrack(ptr);
-			return track(address, size);
+			if ( address != NULL ) {
+				// the reallocated memory keeps its tag
+				int tag = ptr == NULL ? tlsGet().memoryTag : untrack(ptr);
+				track(address, size, tag);
+			}
+			return address;
 		}
 
 		@Override
@@ -199,9 +1085,29 @@ final class MemoryManage {
 			untrack(ptr);
 		}
 
+		@Override
+		public void free(long ptr, long size) {
+			if ( allocator instanceof SizedMemoryAllocator )
+				((SizedMemoryAllocator)allocator).free(ptr, size);
+			else
+				allocator.free(ptr);
+			untrack(ptr);
+		}
+
+		@Override
+		public long realloc_in_place(long ptr, long size) {
+			if ( !(allocator instanceof SizedMemoryAllocator) )
+				return 0L;
+
+			long usableSize = ((SizedMemoryAllocator)allocator).realloc_in_place(ptr, size);
+			if ( size <= usableSize )
+				track(ptr, size, untrack(ptr));
+			return usableSize;
+		}
+
 		@Override
 		public long aligned_alloc(long alignment, long size) {
-			return track(allocator.aligned_alloc(alignment, size), size);
+			return track(allocator.aligned_alloc(alignment, size), size, tlsGet().memoryTag);
 		}
 
 		@Override
@@ -215,49 +1121,130 @@ final class MemoryManage {
 			allocator.config(malloc, calloc, realloc, free, aligned_alloc, aligned_free);
 		}
 
-		private static long track(long address, long size) {
+		/** Returns the index of the stripe that tracks the specified address. */
+		static int getStripe(long address) {
+			return AllocationTable.hash(address) & AllocationTable.STRIPE_MASK;
+		}
+
+		/** Returns the tracked size of the specified address, or -1 if the address is not being tracked. */
+		static long getTrackedSize(long address) {
+			int hash = AllocationTable.hash(address);
+			return STRIPES[hash & AllocationTable.STRIPE_MASK].get(hash >>> AllocationTable.STRIPE_BITS, address);
+		}
+
+		/** Returns true if the stack trace of the next allocation should be captured. */
+		static boolean sample() {
+			return SAMPLING == 1 || sampleCounter++ % SAMPLING == 0;
+		}
+
+		private static long track(long address, long size, int tag) {
 			if ( address != NULL ) {
 				Thread t = Thread.currentThread();
-				Long threadId = t.getId();
-				if ( !THREADS.containsKey(threadId) )
+				long threadId = t.getId();
+				if ( THREAD_REGISTERED.get() == null ) {
 					THREADS.put(threadId, t.getName());
-
-				StackTraceElement[] stackTrace = t.getStackTrace();
-				int depth = Math.min(stackTrace.length, 4);
-				for ( ; depth < stackTrace.length; depth++ ) {
-					if ( !"org.lwjgl.system.MemoryUtil".equals(stackTrace[depth].getClassName()) )
-						break;
+					THREAD_REGISTERED.set(Boolean.TRUE);
 				}
 
-				Allocation allocation = ALLOCATIONS.put(address, new Allocation(Arrays.copyOfRange(stackTrace, depth, stackTrace.length), size));
-				if ( allocation != null )
+				int traceId = sample() ? intern(t.getStackTrace()) : 0;
+
+				int hash = AllocationTable.hash(address);
+				if ( !STRIPES[hash & AllocationTable.STRIPE_MASK].put(hash >>> AllocationTable.STRIPE_BITS, address, size, threadId, traceId, tag) )
 					throw new IllegalStateException("The memory address specified is already being tracked");
 			}
 
 			return address;
 		}
 
-		private static void untrack(long address) {
+		/** Stops tracking the specified address and returns its allocation tag. */
+		private static int untrack(long address) {
 			if ( address == NULL )
-				return;
+				return MEM_TAG_NONE;
 
-			Allocation allocation = ALLOCATIONS.remove(address);
-			if ( allocation == null )
+			int hash = AllocationTable.hash(address);
+			int tag = STRIPES[hash & AllocationTable.STRIPE_MASK].remove(hash >>> AllocationTable.STRIPE_BITS, address);
+			if ( tag == -1 )
 				throw new IllegalStateException("The memory address specified is not being tracked");
+			return tag;
+		}
+
+		/** Returns the id of the specified stack trace, after removing the {@link MemoryUtil} and allocator frames. */
+		private static int intern(StackTraceElement[] stackTrace) {
+			int depth = Math.min(stackTrace.length, 4);
+			for ( ; depth < stackTrace.length; depth++ ) {
+				if ( !"org.lwjgl.system.MemoryUtil".equals(stackTrace[depth].getClassName()) )
+					break;
+			}
+
+			StackTrace key = new StackTrace(Arrays.copyOfRange(stackTrace, depth, stackTrace.length));
+
+			Integer id = TRACE_IDS.get(key);
+			if ( id != null )
+				return id;
+
+			synchronized ( TRACE_IDS ) {
+				id = TRACE_IDS.get(key);
+				if ( id != null )
+					return id;
+
+				StackTraceElement[][] traces = DebugAllocator.traces;
+				if ( traceCount == traces.length )
+					traces = Arrays.copyOf(traces, traces.length * 2);
+
+				id = traceCount++;
+				traces[id] = key.elements;
+				DebugAllocator.traces = traces;
+
+				TRACE_IDS.put(key, id);
+			}
+
+			return id;
+		}
+
+		/** Returns the interned stack trace with the specified id, or null if the stack trace was not captured. */
+		private static StackTraceElement[] getInternedStackTrace(int traceId) {
+			return traceId == 0 ? null : traces[traceId];
 		}
 
-		private static class Allocation {
+		/** A copy of all live allocations. */
+		static final class Snapshot {
+
+			long[] addresses = new long[64];
+			long[] sizes     = new long[64];
+			long[] threadIds = new long[64];
+			int[]  traceIds  = new int[64];
+
+			int count;
+
+			Snapshot() {
+				for ( AllocationTable stripe : STRIPES )
+					stripe.snapshot(this);
+			}
+
+			void ensureCapacity(int capacity) {
+				if ( capacity <= addresses.length )
+					return;
+
+				capacity = Math.max(capacity, addresses.length * 2);
+
+				addresses = Arrays.copyOf(addresses, capacity);
+				sizes = Arrays.copyOf(sizes, capacity);
+				threadIds = Arrays.copyOf(threadIds, capacity);
+				traceIds = Arrays.copyOf(traceIds, capacity);
+			}
+
+		}
 
-			final StackTraceElement[] stackTrace;
+		/** Stack trace wrapper used as a key for interning. */
+		private static final class StackTrace {
 
-			final long size;
+			final StackTraceElement[] elements;
 
-			final long threadId;
+			private final int hash;
 
-			Allocation(StackTraceElement[] stackTrace, long size) {
-				this.stackTrace = stackTrace;
-				this.size = size;
-				this.threadId = Thread.currentThread().getId();
+			StackTrace(StackTraceElement[] elements) {
+				this.elements = elements;
+				this.hash = Arrays.hashCode(elements);
 			}
 
 			@Override
@@ -265,21 +1252,30 @@ final class MemoryManage {
 				if ( this == o ) return true;
 				if ( o == null || getClass() != o.getClass() ) return false;
 
-				Allocation that = (Allocation)o;
+				StackTrace that = (StackTrace)o;
 
-				return Arrays.equals(stackTrace, that.stackTrace);
+				return hash == that.hash && Arrays.equals(elements, that.elements);
 			}
 
 			@Override
 			public int hashCode() {
-				return Arrays.hashCode(stackTrace);
+				return hash;
 			}
 
 		}
 
 		static void report(MemoryAllocationReport report) {
-			for ( Allocation allocation : ALLOCATIONS.values() )
-				report.invoke(allocation.size, allocation.threadId, THREADS.get(allocation.threadId), allocation.stackTrace);
+			Snapshot snapshot = new Snapshot();
+			for ( int i = 0; i < snapshot.count; i++ )
+				report.invoke(snapshot.sizes[i], snapshot.threadIds[i], THREADS.get(snapshot.threadIds[i]), getInternedStackTrace(snapshot.traceIds[i]));
+		}
+
+		static void report(MemoryTagReport report) {
+			AllocationTable.report(STRIPES, report);
+		}
+
+		static long getTagBytes(int tag) {
+			return AllocationTable.getTagBytes(STRIPES, tag);
 		}
 
 		private static <T> void aggregate(T t, long size, Map<T, AtomicLong> map) {
@@ -289,36 +1285,47 @@ final class MemoryManage {
 			node.set(node.get() + size);
 		}
 
+		private static StackTraceElement getMethod(int traceId) {
+			StackTraceElement[] stackTrace = getInternedStackTrace(traceId);
+			return stackTrace == null || stackTrace.length == 0 ? null : stackTrace[0];
+		}
+
+		private static StackTraceElement[] asStackTrace(StackTraceElement method) {
+			return method == null ? null : new StackTraceElement[] { method };
+		}
+
 		static void report(
 			MemoryAllocationReport report,
 			MemoryAllocationReport.Aggregate groupByStackTrace,
 			boolean groupByThread
 		) {
+			Snapshot snapshot = new Snapshot();
+
 			// Using atomic long for the mutability, no concurrency here
 			switch ( groupByStackTrace ) {
 				case ALL:
 					if ( groupByThread ) {
 						Map<Long, AtomicLong> mapThread = new HashMap<Long, AtomicLong>();
-						for ( Allocation allocation : ALLOCATIONS.values() )
-							aggregate(allocation.threadId, allocation.size, mapThread);
+						for ( int i = 0; i < snapshot.count; i++ )
+							aggregate(snapshot.threadIds[i], snapshot.sizes[i], mapThread);
 						for ( Entry<Long, AtomicLong> entry : mapThread.entrySet() )
 							report.invoke(entry.getValue().get(), entry.getKey(), THREADS.get(entry.getKey()), (StackTraceElement[])null);
 					} else {
 						long total = 0L;
-						for ( Allocation allocation : ALLOCATIONS.values() )
-							total += allocation.size;
+						for ( int i = 0; i < snapshot.count; i++ )
+							total += snapshot.sizes[i];
 						report.invoke(total, NULL, null, (StackTraceElement[])null);
 					}
 					break;
 				case GROUP_BY_METHOD:
-					// Group by StackTraceElement[0]
+					// Group by StackTraceElement[0], allocations without a sampled stack trace are grouped under null
 					if ( groupByThread ) {
 						Map<Long, Map<StackTraceElement, AtomicLong>> mapThreadMethod = new HashMap<Long, Map<StackTraceElement, AtomicLong>>();
-						for ( Allocation allocation : ALLOCATIONS.values() ) {
-							Map<StackTraceElement, AtomicLong> mapMethod = mapThreadMethod.get(allocation.threadId);
+						for ( int i = 0; i < snapshot.count; i++ ) {
+							Map<StackTraceElement, AtomicLong> mapMethod = mapThreadMethod.get(snapshot.threadIds[i]);
 							if ( mapMethod == null )
-								mapThreadMethod.put(allocation.threadId, mapMethod = new HashMap<StackTraceElement, AtomicLong>());
-							aggregate(allocation.stackTrace[0], allocation.size, mapMethod);
+								mapThreadMethod.put(snapshot.threadIds[i], mapMethod = new HashMap<StackTraceElement, AtomicLong>());
+							aggregate(getMethod(snapshot.traceIds[i]), snapshot.sizes[i], mapMethod);
 						}
 
 						for ( Entry<Long, Map<StackTraceElement, AtomicLong>> tms : mapThreadMethod.entrySet() ) {
@@ -326,40 +1333,40 @@ final class MemoryManage {
 							Map<StackTraceElement, AtomicLong> mapmapMethod = tms.getValue();
 
 							for ( Entry<StackTraceElement, AtomicLong> ms : mapmapMethod.entrySet() )
-								report.invoke(ms.getValue().get(), threadId, THREADS.get(threadId), ms.getKey());
+								report.invoke(ms.getValue().get(), threadId, THREADS.get(threadId), asStackTrace(ms.getKey()));
 						}
 					} else {
 						Map<StackTraceElement, AtomicLong> mapMethod = new HashMap<StackTraceElement, AtomicLong>();
-						for ( Allocation allocation : ALLOCATIONS.values() )
-							aggregate(allocation.stackTrace[0], allocation.size, mapMethod);
+						for ( int i = 0; i < snapshot.count; i++ )
+							aggregate(getMethod(snapshot.traceIds[i]), snapshot.sizes[i], mapMethod);
 						for ( Entry<StackTraceElement, AtomicLong> ms : mapMethod.entrySet() )
-							report.invoke(ms.getValue().get(), NULL, null, ms.getKey());
+							report.invoke(ms.getValue().get(), NULL, null, asStackTrace(ms.getKey()));
 					}
 					break;
 				case GROUP_BY_STACKTRACE:
-					// Group by StackTraceElement[]
+					// Group by interned stack trace id
 					if ( groupByThread ) {
-						Map<Long, Map<Allocation, AtomicLong>> mapThreadStackTrace = new HashMap<Long, Map<Allocation, AtomicLong>>();
-						for ( Allocation allocation : ALLOCATIONS.values() ) {
-							Map<Allocation, AtomicLong> mapStackTrace = mapThreadStackTrace.get(allocation.threadId);
+						Map<Long, Map<Integer, AtomicLong>> mapThreadStackTrace = new HashMap<Long, Map<Integer, AtomicLong>>();
+						for ( int i = 0; i < snapshot.count; i++ ) {
+							Map<Integer, AtomicLong> mapStackTrace = mapThreadStackTrace.get(snapshot.threadIds[i]);
 							if ( mapStackTrace == null )
-								mapThreadStackTrace.put(allocation.threadId, mapStackTrace = new HashMap<Allocation, AtomicLong>());
-							aggregate(allocation, allocation.size, mapStackTrace);
+								mapThreadStackTrace.put(snapshot.threadIds[i], mapStackTrace = new HashMap<Integer, AtomicLong>());
+							aggregate(snapshot.traceIds[i], snapshot.sizes[i], mapStackTrace);
 						}
 
-						for ( Entry<Long, Map<Allocation, AtomicLong>> tss : mapThreadStackTrace.entrySet() ) {
+						for ( Entry<Long, Map<Integer, AtomicLong>> tss : mapThreadStackTrace.entrySet() ) {
 							long threadId = tss.getKey();
-							Map<Allocation, AtomicLong> mapStackTrace = tss.getValue();
+							Map<Integer, AtomicLong> mapStackTrace = tss.getValue();
 
-							for ( Entry<Allocation, AtomicLong> ss : mapStackTrace.entrySet() )
-								report.invoke(ss.getValue().get(), threadId, THREADS.get(threadId), ss.getKey().stackTrace);
+							for ( Entry<Integer, AtomicLong> ss : mapStackTrace.entrySet() )
+								report.invoke(ss.getValue().get(), threadId, THREADS.get(threadId), getInternedStackTrace(ss.getKey()));
 						}
 					} else {
-						Map<Allocation, AtomicLong> mapStackTrace = new HashMap<Allocation, AtomicLong>();
-						for ( Allocation allocation : ALLOCATIONS.values() )
-							aggregate(allocation, allocation.size, mapStackTrace);
-						for ( Entry<Allocation, AtomicLong> ss : mapStackTrace.entrySet() )
-							report.invoke(ss.getValue().get(), NULL, null, ss.getKey().stackTrace);
+						Map<Integer, AtomicLong> mapStackTrace = new HashMap<Integer, AtomicLong>();
+						for ( int i = 0; i < snapshot.count; i++ )
+							aggregate(snapshot.traceIds[i], snapshot.sizes[i], mapStackTrace);
+						for ( Entry<Integer, AtomicLong> ss : mapStackTrace.entrySet() )
+							report.invoke(ss.getValue().get(), NULL, null, getInternedStackTrace(ss.getKey()));
 					}
 					break;
 			}
@@ -367,4 +1374,4 @@ final class MemoryManage {
 
 	}
 
-}
\ No newline at end of file
+}
@@ -7,8 +7,13 @@ package org.lwjgl.system;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.PointerBuffer;
 
+import java.io.Closeable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.*;
-import java.util.Arrays;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.lwjgl.system.APIUtil.*;
 import static org.lwjgl.system.Checks.*;
@@ -22,7 +27,21 @@ import static org.lwjgl.system.ThreadLocalUtil.*;
  *
  * <p>This class should be used in a thread-local manner for stack allocations.</p>
  *
+ * <h3>Growable stacks</h3>
+ *
+ * <p>By default, a stack allocation that does not fit in the remaining stack space throws an {@link OutOfMemoryError}. A growable stack instead chains a new
+ * off-heap segment, allocated with {@link MemoryUtil#nmemAlloc}, and continues the allocation there. The stack pointer keeps decreasing past zero, so
+ * {@link #getPointer} and {@link #setPointer} work the same way across segments. Segments are freed when the frame that created them is popped, or when
+ * the stack pointer is restored above them with {@link #setPointer}.</p>
+ *
+ * <h3>Usage statistics</h3>
+ *
+ * <p>Each stack tracks its high watermark, its maximum frame depth and the number of times it had to chain a new segment. The statistics of all
+ * thread-local stacks can be collected with {@link #stackReport}, which is useful for tuning {@link Configuration#STACK_SIZE}. Tracking is always enabled
+ * and costs a single comparison per allocation and per push.</p>
+ *
  * @see Configuration#STACK_SIZE
+ * @see Configuration#STACK_GROWABLE
  * @see Configuration#DEBUG_STACK
  */
 public class MemoryStack {
@@ -30,36 +49,115 @@ public class MemoryStack {
 	private static final int DEFAULT_STACK_SIZE   = Configuration.STACK_SIZE.get(32) * 1024;
 	private static final int DEFAULT_STACK_FRAMES = 8;
 
+	private static final boolean DEFAULT_STACK_GROWABLE = Configuration.STACK_GROWABLE.get(false);
+
+	private static final int STACK_POOL_SIZE = Configuration.STACK_POOL_SIZE.get(0);
+
 	private static final boolean DEBUG_STACK = Configuration.DEBUG_STACK.get(false);
 
+	/** The alignment of the stack pointer at segment boundaries. */
+	private static final int SEGMENT_ALIGNMENT = 16;
+
 	static {
 		if ( DEFAULT_STACK_SIZE < 0 )
 			throw new IllegalStateException("Invalid stack size.");
+		if ( STACK_POOL_SIZE < 0 )
+			throw new IllegalStateException("Invalid stack pool size.");
 	}
 
-	private final ByteBuffer buffer;
-	private final long       address;
+	/** The pool of thread-local stack segments, or null if pooling is disabled. */
+	private static final StackPool STACK_POOL = STACK_POOL_SIZE == 0 ? null : new StackPool(STACK_POOL_SIZE);
+
+	/** The handle that owns the base segment, or null if the memory is managed explicitly. */
+	private final MemoryHandle handle;
+	/** The direct buffer that backs the base segment of a thread-local stack that is not pooled, or null. */
+	private final ByteBuffer   container;
+	private final long         address;
+
+	/** True if this stack is managed by LWJGL for a thread. */
+	private boolean threadLocal;
 
 	private final int size;
 
+	private final boolean growable;
+
 	private int pointer;
 
 	private   int[] frames;
 	protected int   frameIndex;
 
+	private Frame[] frameHandles;
+
+	// Usage statistics
+
+	/** The lowest stack pointer reached. */
+	private int watermark;
+	/** The maximum frame depth reached. */
+	private int maxFrameIndex;
+	/** The number of chained segments allocated. */
+	private int overflows;
+
+	// Current segment state. For the base segment: base == address, limit == 0 and top == Integer.MAX_VALUE.
+
+	/** The memory address that corresponds to a stack pointer of 0 in the current segment. */
+	private long base;
+	/** The lowest valid stack pointer in the current segment. */
+	private int  limit;
+	/** The stack pointer at and above which the current segment is released. */
+	private int  top;
+
+	private final Segments segments;
+
 	/**
 	 * Creates a new {@link MemoryStack} with the specified size.
 	 *
 	 * @param size the maximum number of bytes that may be allocated on the stack
 	 */
 	protected MemoryStack(int size) {
-		this.buffer = BufferUtils.createByteBuffer(size);
-		this.address = memAddress(buffer);
+		this(size, false);
+	}
+
+	/**
+	 * Creates a new {@link MemoryStack} with the specified size.
+	 *
+	 * @param size     the size of the base stack segment, in bytes. If the stack is not growable, this is the maximum number of bytes that may be allocated
+	 *                 on the stack.
+	 * @param growable if true, the stack will chain new segments when it runs out of space
+	 */
+	protected MemoryStack(int size, boolean growable) {
+		this(MemoryHandle.malloc(size), growable);
+	}
+
+	private MemoryStack(MemoryHandle handle, boolean growable) {
+		this(handle, null, handle.address(), handle.size(), growable);
+	}
+
+	/**
+	 * Creates a new {@link MemoryStack} on existing memory.
+	 *
+	 * @param handle    the handle that owns the memory, or null if the memory is managed explicitly
+	 * @param container the direct buffer that owns the memory, or null
+	 * @param address   the address of the base stack segment
+	 * @param size      the size of the base stack segment, in bytes
+	 * @param growable  if true, the stack will chain new segments when it runs out of space
+	 */
+	private MemoryStack(MemoryHandle handle, ByteBuffer container, long address, int size, boolean growable) {
+		this.handle = handle;
+		this.container = container;
+		this.address = address;
 
 		this.size = size;
+		this.growable = growable;
 		this.pointer = size;
+		this.watermark = size;
 
 		this.frames = new int[DEFAULT_STACK_FRAMES];
+
+		this.base = address;
+		this.limit = 0;
+		this.top = Integer.MAX_VALUE;
+
+		this.segments = new Segments();
 	}
 
 	/** Creates a new {@link MemoryStack} with the default size. */
@@ -73,9 +171,59 @@ public class MemoryStack {
 	 * @param size the maximum number of bytes that may be allocated on the stack
 	 */
 	public static MemoryStack create(int size) {
+		return create(size, DEFAULT_STACK_GROWABLE);
+	}
+
+	/**
+	 * Creates a new {@link MemoryStack} with the specified size.
+	 *
+	 * @param size     the size of the base stack segment, in bytes
+	 * @param growable if true, the stack will chain new segments when it runs out of space, instead of throwing an {@link OutOfMemoryError}
+	 */
+	public static MemoryStack create(int size, boolean growable) {
 		return DEBUG_STACK
-			? new DebugMemoryStack(size)
-			: new MemoryStack(size);
+			? new DebugMemoryStack(size, growable)
+			: new MemoryStack(size, growable);
+	}
+
+	/**
+	 * Creates a new {@link MemoryStack} with the default size for the current thread and registers it for {@link #stackReport}. Used by
+	 * {@link ThreadLocalState}.
+	 *
+	 * <p>If {@link Configuration#STACK_POOL_SIZE} is set, the base segment is taken from the stack pool and returned to it after the thread terminates.
+	 * Otherwise, it is backed by a direct {@link ByteBuffer}.</p>
+	 */
+	static MemoryStack createThreadLocal() {
+		return createThreadLocal(STACK_POOL);
+	}
+
+	/**
+	 * Creates a new {@link MemoryStack} with the default size for the current thread, with its base segment taken from the specified pool.
+	 *
+	 * @param pool the stack pool, or null to back the stack with a direct {@link ByteBuffer}
+	 */
+	static MemoryStack createThreadLocal(StackPool pool) {
+		// The base segment is not tracked by the explicit memory management API, a thread's stack is never freed explicitly
+		ByteBuffer container = null;
+		long segment;
+		if ( pool == null ) {
+			container = BufferUtils.createByteBuffer(DEFAULT_STACK_SIZE);
+			segment = memAddress(container);
+		} else {
+			segment = pool.acquire();
+			if ( segment == NULL ) {
+				segment = nmemAlloc(DEFAULT_STACK_SIZE);
+				if ( segment == NULL )
+					throw new OutOfMemoryError("Failed to allocate stack segment.");
+			}
+		}
+
+		MemoryStack stack = DEBUG_STACK
+			? new DebugMemoryStack(null, container, segment, DEFAULT_STACK_SIZE, DEFAULT_STACK_GROWABLE)
+			: new MemoryStack(null, container, segment, DEFAULT_STACK_SIZE, DEFAULT_STACK_GROWABLE);
+		stack.threadLocal = true;
+		StackRef.register(stack, Thread.currentThread(), pool);
+		return stack;
 	}
 
 	/**
@@ -98,6 +246,8 @@ public class MemoryStack {
 			frames = Arrays.copyOf(frames, frames.length * 2);
 
 		frames[frameIndex++] = pointer;
+		if ( maxFrameIndex < frameIndex )
+			maxFrameIndex = frameIndex;
 		return this;
 	}
 
@@ -108,16 +258,100 @@ public class MemoryStack {
 	 */
 	public MemoryStack pop() {
 		pointer = frames[--frameIndex];
+		if ( top <= pointer )
+			release(pointer);
 		return this;
 	}
 
+	/**
+	 * Pushes a new frame to the stack and returns a handle to it.
+	 *
+	 * <p>This is an alternative to the {@link #push}/{@link #pop} pair. The returned {@link Frame} pops itself when {@link Frame#close closed}, which
+	 * enables the try-with-resources statement on Java 7 or newer:</p>
+	 *
+	 * <pre><code>
+	 * try ( MemoryStack.Frame frame = stack.pushFrame() ) {
+	 *     IntBuffer ip = stack.mallocInt(1);
+	 *     ...
+	 * }</code></pre>
+	 *
+	 * <p>Frame handles are cached per frame index, so this method does not allocate in the steady state. Asymmetric pops are detected by comparing frame
+	 * indices, which is cheap enough to remain enabled when {@link Configuration#DEBUG_STACK} is not.</p>
+	 *
+	 * @return the frame handle
+	 */
+	public Frame pushFrame() {
+		int index = frameIndex;
+		push();
+
+		Frame[] handles = frameHandles;
+		if ( handles == null || handles.length <= index )
+			frameHandles = handles = handles == null
+				? new Frame[Math.max(DEFAULT_STACK_FRAMES, index + 1)]
+				: Arrays.copyOf(handles, Math.max(handles.length * 2, index + 1));
+
+		Frame frame = handles[index];
+		if ( frame == null )
+			handles[index] = frame = new Frame(this, index);
+
+		return frame;
+	}
+
+	/**
+	 * A stack frame handle, returned by {@link #pushFrame}.
+	 *
+	 * <p>This class implements {@link Closeable} instead of {@code AutoCloseable} to remain compatible with Java 6. Since {@code Closeable} extends
+	 * {@code AutoCloseable} on Java 7 or newer, frame handles can be used in try-with-resources statements.</p>
+	 */
+	public static final class Frame implements Closeable {
+
+		private final MemoryStack stack;
+		private final int         index;
+
+		Frame(MemoryStack stack, int index) {
+			this.stack = stack;
+			this.index = index;
+		}
+
+		/** Returns the stack that owns this frame. */
+		public MemoryStack getStack() {
+			return stack;
+		}
+
+		/** Returns the index of this frame, i.e. the value of {@link MemoryStack#getFrameIndex} before this frame was pushed. */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Pops this frame.
+		 *
+		 * @throws IllegalStateException if this is not the current frame of the stack
+		 */
+		@Override
+		public void close() {
+			if ( CHECKS && stack.frameIndex != index + 1 )
+				throw new IllegalStateException(String.format(
+					"Asymmetric pop detected: closing frame %d but the current frame is %d", index, stack.frameIndex - 1
+				));
+
+			stack.pop();
+		}
+
+	}
+
 	/** Stores the method that pushed a frame and checks if it is the same method when the frame is popped. */
 	private static class DebugMemoryStack extends MemoryStack {
 
 		private StackTraceElement[] debugFrames;
 
-		DebugMemoryStack(int size) {
-			super(size);
+		DebugMemoryStack(int size, boolean growable) {
+			super(size, growable);
+			debugFrames = new StackTraceElement[DEFAULT_STACK_FRAMES];
+		}
+
+		DebugMemoryStack(MemoryHandle handle, ByteBuffer container, long address, int size, boolean growable) {
+			super(handle, container, address, size, growable);
 			debugFrames = new StackTraceElement[DEFAULT_STACK_FRAMES];
 		}
 
@@ -163,6 +397,8 @@ public class MemoryStack {
 	 * Returns the address of the backing off-heap memory.
 	 *
 	 * <p>The stack grows "downwards", so the bottom of the stack is at {@code address + size}, while the top is at {@code address}.</p>
+	 *
+	 * <p>For growable stacks, this is the address of the base segment.</p>
 	 */
 	public long getAddress() {
 		return address;
@@ -171,12 +407,17 @@ public class MemoryStack {
 	/**
 	 * Returns the size of the backing off-heap memory.
 	 *
-	 * <p>This is the maximum number of bytes that may be allocated on the stack.</p>
+	 * <p>This is the maximum number of bytes that may be allocated on the stack. For growable stacks, this is the size of the base segment.</p>
 	 */
 	public int getSize() {
 		return size;
 	}
 
+	/** Returns true if this stack chains new segments when it runs out of space. */
+	public boolean isGrowable() {
+		return growable;
+	}
+
 	/**
 	 * Returns the current frame index.
 	 *
@@ -186,13 +427,45 @@ public class MemoryStack {
 		return frameIndex;
 	}
 
+	/**
+	 * Returns the maximum number of bytes that have been allocated on this stack at any one time, since it was created or since the last call to
+	 * {@link #resetStatistics}.
+	 *
+	 * <p>For growable stacks, this value includes the bytes allocated on chained segments and may be greater than {@link #getSize}.</p>
+	 */
+	public long getHighWatermark() {
+		return (long)size - watermark;
+	}
+
+	/** Returns the maximum frame depth reached, since the stack was created or since the last call to {@link #resetStatistics}. */
+	public int getMaxFrameDepth() {
+		return maxFrameIndex;
+	}
+
+	/**
+	 * Returns the number of times a new segment had to be chained, since the stack was created or since the last call to {@link #resetStatistics}.
+	 *
+	 * <p>This is always 0 for stacks that are not growable.</p>
+	 */
+	public int getOverflowCount() {
+		return overflows;
+	}
+
+	/** Resets the usage statistics of this stack to the current stack state. */
+	public void resetStatistics() {
+		watermark = pointer;
+		maxFrameIndex = frameIndex;
+		overflows = 0;
+	}
+
 	/**
 	 * Returns the current stack pointer.
 	 *
 	 * <p>The stack grows "downwards", so when the stack is empty {@code pointer} is equal to {@code size}. On every allocation {@code pointer} is reduced by
 	 * the allocated size (after alignment) and {@code address + pointers} points to the last byte of the last allocation.</p>
 	 *
-	 * <p>Effectively, this methods returns how many more bytes may be allocated on the stack.</p>
+	 * <p>Effectively, this methods returns how many more bytes may be allocated on the stack. For growable stacks, the pointer becomes negative when
+	 * allocations have overflowed to chained segments.</p>
 	 */
 	public int getPointer() {
 		return pointer;
@@ -209,10 +482,12 @@ public class MemoryStack {
 			checkPointer(pointer);
 
 		this.pointer = pointer;
+		if ( top <= pointer )
+			release(pointer);
 	}
 
 	private void checkPointer(int pointer) {
-		if ( pointer < 0 || size < pointer )
+		if ( pointer < limit || size < pointer )
 			throw new IndexOutOfBoundsException("Invalid stack pointer");
 	}
 
@@ -221,11 +496,6 @@ public class MemoryStack {
 			throw new IllegalArgumentException("Alignment must be a power-of-two value.");
 	}
 
-	private static void checkPush(int pointer) {
-		if ( pointer < 0 )
-			throw new OutOfMemoryError("Out of stack space.");
-	}
-
 	/**
 	 * Calls {@link #nmalloc(int, int)} with {@code alignment} equal to 1.
 	 *
@@ -251,15 +521,114 @@ public class MemoryStack {
 
 		if ( DEBUG )
 			checkAlignment(alignment);
-		if ( CHECKS )
-			checkPush(newPointer);
 
 		// Align pointer to the specified alignment
 		newPointer &= ~(alignment - 1);
 
+		if ( newPointer < limit ) {
+			if ( growable )
+				return grow(alignment, size);
+			if ( CHECKS )
+				throw new OutOfMemoryError("Out of stack space.");
+		}
+
 		pointer = newPointer;
+		if ( newPointer < watermark )
+			watermark = newPointer;
+
+		return base + newPointer;
+	}
+
+	/**
+	 * Frees the memory of this stack, including any chained segments. The stack must not be used after this method has been called.
+	 *
+	 * <p>Only stacks created with {@link #create} can be freed. If such a stack is not freed, its base segment is freed after the stack becomes
+	 * unreachable, but chained segments are only freed when the frames that created them are popped.</p>
+	 *
+	 * @throws IllegalStateException if this is a thread-local stack
+	 */
+	public void free() {
+		if ( threadLocal || handle == null )
+			throw new IllegalStateException("Thread-local stacks cannot be freed.");
+
+		segments.free();
+
+		handle.close();
+	}
+
+	/** Chains a new segment that can fit the specified allocation and allocates from it. */
+	private long grow(int alignment, int size) {
+		if ( size < 0 )
+			throw new IllegalArgumentException("Invalid allocation size.");
+
+		long capacity = (Math.max((long)this.size, (long)size + alignment) + (SEGMENT_ALIGNMENT - 1)) & ~(SEGMENT_ALIGNMENT - 1);
+
+		// The new segment starts where the current one ends
+		int segmentTop = limit;
+		if ( segmentTop - capacity < Integer.MIN_VALUE )
+			throw new OutOfMemoryError("Out of stack space.");
+
+		long segment = nmemAlloc(capacity);
+		if ( segment == NULL )
+			throw new OutOfMemoryError("Failed to allocate stack segment.");
+
+		Segments segments = this.segments;
+		if ( segments.addresses == null ) {
+			segments.addresses = new long[DEFAULT_STACK_FRAMES];
+			segments.limits = new int[DEFAULT_STACK_FRAMES];
+
+			segments.addresses[0] = address;
+			segments.limits[0] = 0;
+		} else if ( segments.index + 1 == segments.addresses.length ) {
+			segments.addresses = Arrays.copyOf(segments.addresses, segments.addresses.length * 2);
+			segments.limits = Arrays.copyOf(segments.limits, segments.limits.length * 2);
+		}
+
+		overflows++;
+
+		int index = ++segments.index;
+		segments.addresses[index] = segment;
+		segments.limits[index] = (int)(segmentTop - capacity);
+
+		limit = segments.limits[index];
+		base = segment - limit;
+		top = segmentTop;
+
+		pointer = segmentTop;
+		return nmalloc(alignment, size);
+	}
+
+	/** Frees the chained segments that lie entirely below the specified stack pointer. */
+	private void release(int pointer) {
+		Segments segments = this.segments;
+		while ( 0 < segments.index && segments.limits[segments.index - 1] <= pointer )
+			nmemFree(segments.addresses[segments.index--]);
+
+		int index = segments.index;
+		limit = segments.limits[index];
+		base = segments.addresses[index] - limit;
+		top = index == 0 ? Integer.MAX_VALUE : segments.limits[index - 1];
+	}
+
+	/**
+	 * The chained segments of a stack, index 0 is the base segment.
+	 *
+	 * <p>The segments of a thread-local stack are also referenced by its {@link StackRef}, so that they can be freed without keeping the stack reachable
+	 * after its thread has terminated.</p>
+	 */
+	private static final class Segments {
+
+		/** The segment addresses, allocated when the first segment is chained. */
+		long[] addresses;
+		int[]  limits;
+		int    index;
+
+		/** Frees all chained segments. */
+		void free() {
+			while ( 0 < index )
+				nmemFree(addresses[index--]);
+		}
 
-		return this.address + newPointer;
 	}
 
 	/**
@@ -552,6 +921,208 @@ public class MemoryStack {
 	// -----------------------------------------------------
 	// -----------------------------------------------------
 
+	/** Reports the usage statistics of a thread-local stack. */
+	public interface StackReport {
+
+		/**
+		 * Reports the usage statistics of a stack.
+		 *
+		 * @param threadId      id of the thread that owns the stack
+		 * @param threadName    name of the thread that owns the stack, when the stack was created
+		 * @param size          the stack size, in bytes
+		 * @param highWatermark the maximum number of bytes allocated on the stack
+		 * @param maxFrameDepth the maximum frame depth reached
+		 * @param overflows     the number of segments chained because the stack ran out of space
+		 */
+		void invoke(long threadId, String threadName, int size, long highWatermark, int maxFrameDepth, int overflows);
+
+	}
+
+	/**
+	 * Reports the usage statistics of all live thread-local stacks.
+	 *
+	 * <p>The statistics are read without synchronization while other threads may be using their stacks, so the reported values may be slightly stale.
+	 * Stacks of threads that have terminated are not reported.</p>
+	 *
+	 * @param report the report callback
+	 */
+	public static void stackReport(StackReport report) {
+		StackRef.expunge();
+		for ( StackRef ref : StackRef.STACKS ) {
+			Thread thread = ref.get();
+			MemoryStack stack = ref.stack.get();
+			if ( thread != null && thread.isAlive() && stack != null )
+				report.invoke(ref.threadId, ref.threadName, stack.size, stack.getHighWatermark(), stack.maxFrameIndex, stack.overflows);
+		}
+	}
+
+	/**
+	 * Reports the usage statistics of all live thread-local stacks, aggregated over the whole process.
+	 *
+	 * <p>The reported high watermark and frame depth are the maximum values over all stacks, while the overflow count is the sum. The thread id is
+	 * {@link MemoryUtil#NULL} and the thread name is {@code null}. The report callback is not invoked if there are no live thread-local stacks.</p>
+	 *
+	 * @param report the report callback
+	 */
+	public static void stackReportAggregate(StackReport report) {
+		final int[]  count = new int[1];
+		final int[]  size  = new int[1];
+		final long[] highWatermark = new long[1];
+		final int[]  maxFrameDepth = new int[1];
+		final int[]  overflows     = new int[1];
+
+		stackReport(new StackReport() {
+			@Override
+			public void invoke(long threadId, String threadName, int stackSize, long stackHighWatermark, int stackMaxFrameDepth, int stackOverflows) {
+				count[0]++;
+				size[0] = Math.max(size[0], stackSize);
+				highWatermark[0] = Math.max(highWatermark[0], stackHighWatermark);
+				maxFrameDepth[0] = Math.max(maxFrameDepth[0], stackMaxFrameDepth);
+				overflows[0] += stackOverflows;
+			}
+		});
+
+		if ( count[0] != 0 )
+			report.invoke(NULL, null, size[0], highWatermark[0], maxFrameDepth[0], overflows[0]);
+	}
+
+	/**
+	 * Tracks the thread-local stacks, for {@link #stackReport}, for freeing their chained segments and for recycling pooled stacks.
+	 *
+	 * <p>The owner thread and the stack are referenced weakly. The chained segments of a stack are freed after its thread has been garbage collected. A
+	 * pooled stack is recycled when its thread is found terminated by {@link StackPool#acquire}, or after the thread has been garbage collected. Only the base segment address and the chained segments are retained for
+	 * recycling, so a terminated thread never keeps its stack reachable.</p>
+	 */
+	private static final class StackRef extends WeakReference<Thread> {
+
+		private static final ReferenceQueue<Thread> QUEUE = new ReferenceQueue<Thread>();
+
+		static final Set<StackRef> STACKS = Collections.newSetFromMap(new ConcurrentHashMap<StackRef, Boolean>());
+
+		final long   threadId;
+		final String threadName;
+
+		final WeakReference<MemoryStack> stack;
+
+		/** The pool that the base segment is returned to, or null if the stack is not pooled. */
+		private final StackPool pool;
+
+		private final long     address;
+		private final Segments segments;
+
+		private StackRef(MemoryStack stack, Thread thread, StackPool pool) {
+			super(thread, QUEUE);
+			this.threadId = thread.getId();
+			this.threadName = thread.getName();
+
+			this.stack = new WeakReference<MemoryStack>(stack);
+
+			this.pool = pool;
+			this.address = stack.address;
+			this.segments = stack.segments;
+		}
+
+		static void register(MemoryStack stack, Thread thread, StackPool pool) {
+			expunge();
+
+			StackRef ref = new StackRef(stack, thread, pool);
+			STACKS.add(ref);
+			if ( pool != null )
+				pool.refs.offer(ref);
+		}
+
+		static void expunge() {
+			Object ref;
+			while ( (ref = QUEUE.poll()) != null ) {
+				if ( STACKS.remove(ref) )
+					((StackRef)ref).recycle();
+			}
+		}
+
+		/** Returns true if the owner thread has terminated. */
+		boolean isTerminated() {
+			Thread thread = get();
+			return thread == null || !thread.isAlive();
+		}
+
+		private void recycle() {
+			// Free any chained segments, the base segment of a stack that is not pooled is freed with its container
+			segments.free();
+
+			if ( pool != null )
+				pool.recycle(address);
+		}
+
+	}
+
+	/** A pool of base segments for thread-local stacks. */
+	static final class StackPool {
+
+		/** The maximum number of pooled stacks checked for terminated threads per {@link #acquire} call. */
+		private static final int SCAN_LIMIT = 4;
+
+		/** The base segments available for reuse. */
+		private final long[] pool;
+		private       int    size;
+
+		/** The stacks that have taken a segment from this pool, checked incrementally for terminated threads. */
+		final Queue<StackRef> refs = new ConcurrentLinkedQueue<StackRef>();
+
+		StackPool(int capacity) {
+			this.pool = new long[capacity];
+		}
+
+		/** Returns the number of segments available for reuse. */
+		synchronized int size() {
+			return size;
+		}
+
+		/**
+		 * Returns a pooled base segment, or {@link MemoryUtil#NULL} if none is available.
+		 *
+		 * <p>If the pool is empty, the oldest registered stacks are checked for terminated threads that have not been garbage collected yet. At most
+		 * {@link #SCAN_LIMIT} stacks are checked per call, so the cost does not depend on the number of live threads.</p>
+		 */
+		long acquire() {
+			StackRef.expunge();
+
+			long segment = poll();
+			if ( segment == NULL ) {
+				for ( int i = 0; i < SCAN_LIMIT; i++ ) {
+					StackRef ref = refs.poll();
+					if ( ref == null )
+						break;
+
+					if ( ref.isTerminated() ) {
+						// May have been recycled already, after the thread was garbage collected
+						if ( StackRef.STACKS.remove(ref) )
+							ref.recycle();
+					} else
+						refs.offer(ref);
+				}
+				segment = poll();
+			}
+			return segment;
+		}
+
+		private synchronized long poll() {
+			return size == 0 ? NULL : pool[--size];
+		}
+
+		/** Returns a base segment to the pool, or frees it if the pool is full. */
+		void recycle(long segment) {
+			synchronized ( this ) {
+				if ( size < pool.length ) {
+					pool[size++] = segment;
+					return;
+				}
+			}
+
+			nmemFree(segment);
+		}
+
+	}
+
 	/** Returns the stack of the current thread. */
 	public static MemoryStack stackGet() {
 		return tlsGet().stack;
@@ -566,6 +1137,15 @@ public class MemoryStack {
 		return tlsGet().stack.push();
 	}
 
+	/**
+	 * Calls {@link #pushFrame} on the stack of the current thread.
+	 *
+	 * @return the frame handle
+	 */
+	public static Frame stackPushFrame() {
+		return tlsGet().stack.pushFrame();
+	}
+
 	/**
 	 * Calls {@link #pop} on the stack of the current thread.
 	 *
@@ -0,0 +1,387 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.system.MemoryManage.AllocationTable;
+import org.lwjgl.system.MemoryManage.UsableSize;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.ThreadLocalUtil.*;
+
+/**
+ * Provides statistics about the memory allocated with the {@link MemoryUtil} explicit memory management API
+ * ({@link MemoryUtil#memAlloc memAlloc}/{@link MemoryUtil#memFree memFree}/etc).
+ *
+ * <p>The statistics must be enabled with {@link Configuration#MEMORY_STATISTICS}. They are updated on every allocation and free, using striped counters
+ * to avoid contention between threads. They can be polled with {@link #getSnapshot} or exposed through JMX with {@link #registerMBean}. Unlike
+ * {@link MemoryUtil#memReport memReport}, they do not require {@link Configuration#DEBUG_MEMORY_ALLOCATOR}.</p>
+ *
+ * <p>By default, only the requested sizes are counted, which costs two atomic increments per allocation and one per free. The number of live bytes is
+ * also tracked if {@link Configuration#MEMORY_STATISTICS_USABLE_SIZE} is enabled and the allocator is able to report the usable size of an allocation.
+ * This is the case for the jemalloc allocator. Otherwise, {@link Snapshot#bytesLive} is always -1.</p>
+ *
+ * <p>The live bytes of each allocation tag (see {@link MemoryUtil#memSetTag}) are tracked separately, if {@link Configuration#MEMORY_STATISTICS_TAGS} is
+ * enabled. They can be read with {@link MemoryUtil#memGetTagBytes} and {@link MemoryUtil#memReport(MemoryTagReport)}.</p>
+ *
+ * @see Configuration#MEMORY_STATISTICS
+ */
+public final class MemoryStatistics {
+
+	/** The JMX object name used by {@link #registerMBean}. */
+	public static final String MBEAN_NAME = "org.lwjgl:type=MemoryStatistics";
+
+	/** The number of size classes in the allocation histogram. */
+	public static final int SIZE_CLASSES = 64;
+
+	static final boolean ENABLED = Configuration.MEMORY_STATISTICS.get(false);
+
+	private static final UsableSize USABLE_SIZE = ENABLED && Configuration.MEMORY_STATISTICS_USABLE_SIZE.get(false)
+		? MemoryManage.getUsableSize(getAllocator())
+		: null;
+
+	// Counter indices, per stripe. The number of allocations is the sum of the histogram.
+	private static final int
+		FREES            = 0,
+		BYTES_ALLOCATED  = 1,
+		USABLE_ALLOCATED = 2,
+		USABLE_FREED     = 3,
+		HISTOGRAM        = 8;
+
+	/** The number of counters per stripe, a multiple of the cache-line size. */
+	private static final int STRIDE = HISTOGRAM + SIZE_CLASSES;
+
+	private static final int STRIPE_BITS = 4;
+
+	private static final AtomicLongArray COUNTERS = new AtomicLongArray(STRIDE << STRIPE_BITS);
+
+	static final boolean TAGS = Configuration.MEMORY_STATISTICS_TAGS.get(false);
+
+	/** The size and tag of each live allocation, or null if tags are not tracked. */
+	private static final AllocationTable[] TAG_TABLES = TAGS ? AllocationTable.createStripes() : null;
+
+	private MemoryStatistics() {
+	}
+
+	private static int stripe() {
+		return (int)((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> (64 - STRIPE_BITS)) * STRIDE;
+	}
+
+	/** Returns the histogram size class of the specified allocation size. */
+	static int getSizeClass(long size) {
+		return Math.min(64 - Long.numberOfLeadingZeros(size), SIZE_CLASSES - 1);
+	}
+
+	/** Records an allocation. */
+	static void allocated(long address, long size) {
+		if ( address == NULL )
+			return;
+
+		int stripe = stripe();
+		COUNTERS.addAndGet(stripe + BYTES_ALLOCATED, size);
+		COUNTERS.incrementAndGet(stripe + HISTOGRAM + getSizeClass(size));
+		if ( USABLE_SIZE != null )
+			COUNTERS.addAndGet(stripe + USABLE_ALLOCATED, USABLE_SIZE.usable_size(address));
+	}
+
+	/** Records a free. Must be called before the memory is freed. */
+	static void freed(long address) {
+		if ( address == NULL )
+			return;
+
+		int stripe = stripe();
+		COUNTERS.incrementAndGet(stripe + FREES);
+		if ( USABLE_SIZE != null )
+			COUNTERS.addAndGet(stripe + USABLE_FREED, USABLE_SIZE.usable_size(address));
+	}
+
+	/** Returns the usable size of the specified allocation, or 0 if the allocator cannot report it. Used to record reallocations. */
+	static long usableSize(long address) {
+		return USABLE_SIZE == null || address == NULL ? 0L : USABLE_SIZE.usable_size(address);
+	}
+
+	/** Records a reallocation. */
+	static void reallocated(long address, long usableSizeOld, long newAddress, long size) {
+		int stripe = stripe();
+		if ( newAddress == NULL ) {
+			// realloc(ptr, 0) may free the memory and return NULL
+			if ( address != NULL && size == 0L ) {
+				COUNTERS.incrementAndGet(stripe + FREES);
+				COUNTERS.addAndGet(stripe + USABLE_FREED, usableSizeOld);
+			}
+			return;
+		}
+
+		if ( address != NULL ) {
+			COUNTERS.incrementAndGet(stripe + FREES);
+			COUNTERS.addAndGet(stripe + USABLE_FREED, usableSizeOld);
+		}
+		allocated(newAddress, size);
+	}
+
+	/** Records the allocation of a memory block, with the current thread's tag. */
+	static void tagAllocated(long address, long size) {
+		if ( address != NULL )
+			tag(address, size, tlsGet().memoryTag);
+	}
+
+	private static void tag(long address, long size, int tag) {
+		int hash = AllocationTable.hash(address);
+
+		AllocationTable table = TAG_TABLES[hash & AllocationTable.STRIPE_MASK];
+		hash >>>= AllocationTable.STRIPE_BITS;
+
+		// The address is still tracked if it was freed outside the explicit memory management API
+		if ( !table.put(hash, address, size, 0L, 0, tag) ) {
+			table.remove(hash, address);
+			table.put(hash, address, size, 0L, 0, tag);
+		}
+	}
+
+	/** Records the free of a memory block and returns its tag. Must be called before the memory is freed. */
+	static int tagFreed(long address) {
+		if ( address == NULL )
+			return MEM_TAG_NONE;
+
+		int hash = AllocationTable.hash(address);
+		int tag = TAG_TABLES[hash & AllocationTable.STRIPE_MASK].remove(hash >>> AllocationTable.STRIPE_BITS, address);
+		return tag == -1 ? MEM_TAG_NONE : tag;
+	}
+
+	/** Records a reallocation. The memory block keeps its tag. */
+	static void tagReallocated(long address, long newAddress, long size) {
+		if ( newAddress == NULL ) {
+			// realloc(ptr, 0) may free the memory and return NULL
+			if ( address != NULL && size == 0L )
+				tagFreed(address);
+			return;
+		}
+
+		tag(newAddress, size, address == NULL ? tlsGet().memoryTag : tagFreed(address));
+	}
+
+	/** Returns the live bytes of the specified tag. */
+	static long getTagBytes(int tag) {
+		return AllocationTable.getTagBytes(TAG_TABLES, tag);
+	}
+
+	/** Reports the live bytes and allocations of each tag. */
+	static void report(MemoryTagReport report) {
+		AllocationTable.report(TAG_TABLES, report);
+	}
+
+	private static long sum(int counter) {
+		long sum = 0L;
+		for ( int i = 0; i < COUNTERS.length(); i += STRIDE )
+			sum += COUNTERS.get(i + counter);
+		return sum;
+	}
+
+	/** Returns true if statistics are being collected. */
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/** Returns true if the live bytes of each allocation tag are tracked. */
+	public static boolean isTagTrackingEnabled() {
+		return TAGS;
+	}
+
+	/** Returns true if the number of live bytes is available. */
+	public static boolean isBytesLiveAvailable() {
+		return USABLE_SIZE != null;
+	}
+
+	/** Returns the total number of allocations. */
+	public static long getAllocationCount() {
+		long sum = 0L;
+		for ( int i = 0; i < SIZE_CLASSES; i++ )
+			sum += sum(HISTOGRAM + i);
+		return sum;
+	}
+
+	/** Returns the total number of frees. */
+	public static long getFreeCount() {
+		return sum(FREES);
+	}
+
+	/** Returns the total number of bytes requested by all allocations. */
+	public static long getBytesAllocated() {
+		return sum(BYTES_ALLOCATED);
+	}
+
+	/** Returns the number of live bytes, including any allocator rounding, or -1 if the allocator cannot report the usable size of an allocation. */
+	public static long getBytesLive() {
+		return USABLE_SIZE == null ? -1L : sum(USABLE_ALLOCATED) - sum(USABLE_FREED);
+	}
+
+	/**
+	 * Returns a snapshot of the current statistics.
+	 *
+	 * <p>The counters are read without synchronization, so the snapshot may not be consistent if there are concurrent allocations.</p>
+	 */
+	public static Snapshot getSnapshot() {
+		long[] histogram = new long[SIZE_CLASSES];
+		long allocations = 0L;
+		for ( int i = 0; i < COUNTERS.length(); i += STRIDE ) {
+			for ( int j = 0; j < SIZE_CLASSES; j++ ) {
+				long count = COUNTERS.get(i + HISTOGRAM + j);
+				histogram[j] += count;
+				allocations += count;
+			}
+		}
+
+		return new Snapshot(
+			System.nanoTime(),
+			allocations,
+			getFreeCount(),
+			getBytesAllocated(),
+			getBytesLive(),
+			histogram
+		);
+	}
+
+	/** A snapshot of the {@link MemoryStatistics} counters. */
+	public static final class Snapshot {
+
+		/** The {@link System#nanoTime} value when the snapshot was taken. */
+		public final long nanoTime;
+
+		/** The total number of allocations. */
+		public final long allocations;
+		/** The total number of frees. */
+		public final long frees;
+		/** The total number of bytes requested by all allocations. */
+		public final long bytesAllocated;
+		/** The number of live bytes, or -1 if not available. */
+		public final long bytesLive;
+
+		/**
+		 * The number of allocations per size class. Size class {@code 0} counts zero-sized allocations, size class {@code i > 0} counts allocations with a
+		 * size in {@code [2^(i - 1), 2^i)}.
+		 */
+		private final long[] histogram;
+
+		Snapshot(long nanoTime, long allocations, long frees, long bytesAllocated, long bytesLive, long[] histogram) {
+			this.nanoTime = nanoTime;
+			this.allocations = allocations;
+			this.frees = frees;
+			this.bytesAllocated = bytesAllocated;
+			this.bytesLive = bytesLive;
+			this.histogram = histogram;
+		}
+
+		/** Returns the number of live allocations. */
+		public long getLiveAllocations() {
+			return allocations - frees;
+		}
+
+		/**
+		 * Returns the number of allocations in the specified size class.
+		 *
+		 * @param sizeClass the size class, in {@code [0, }{@link #SIZE_CLASSES}{@code )}. Size class {@code 0} counts zero-sized allocations, size class
+		 *                  {@code i > 0} counts allocations with a size in {@code [2^(i - 1), 2^i)}.
+		 */
+		public long getHistogram(int sizeClass) {
+			return histogram[sizeClass];
+		}
+
+		/**
+		 * Returns the allocation rate, in allocations per second, between the specified snapshot and this one.
+		 *
+		 * @param previous a snapshot taken before this one
+		 */
+		public double getAllocationRate(Snapshot previous) {
+			return (allocations - previous.allocations) * 1e9 / (nanoTime - previous.nanoTime);
+		}
+
+		/**
+		 * Returns the allocation rate, in bytes per second, between the specified snapshot and this one.
+		 *
+		 * @param previous a snapshot taken before this one
+		 */
+		public double getByteAllocationRate(Snapshot previous) {
+			return (bytesAllocated - previous.bytesAllocated) * 1e9 / (nanoTime - previous.nanoTime);
+		}
+
+	}
+
+	// -----------------------------------------------------
+
+	/**
+	 * Registers a {@link MemoryStatisticsMBean} with the platform MBean server, under {@link #MBEAN_NAME}. Does nothing if the MBean is already registered.
+	 *
+	 * @throws IllegalStateException if the MBean cannot be registered
+	 */
+	public static synchronized void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(MBEAN_NAME);
+			if ( !server.isRegistered(name) )
+				server.registerMBean(new StandardMBean(new StatisticsMBean(), MemoryStatisticsMBean.class), name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Failed to register the memory statistics MBean.", e);
+		}
+	}
+
+	/**
+	 * Unregisters the {@link MemoryStatisticsMBean} from the platform MBean server. Does nothing if the MBean is not registered.
+	 *
+	 * @throws IllegalStateException if the MBean cannot be unregistered
+	 */
+	public static synchronized void unregisterMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(MBEAN_NAME);
+			if ( server.isRegistered(name) )
+				server.unregisterMBean(name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Failed to unregister the memory statistics MBean.", e);
+		}
+	}
+
+	private static final class StatisticsMBean implements MemoryStatisticsMBean {
+
+		@Override
+		public long getAllocationCount() {
+			return MemoryStatistics.getAllocationCount();
+		}
+
+		@Override
+		public long getFreeCount() {
+			return MemoryStatistics.getFreeCount();
+		}
+
+		@Override
+		public long getLiveAllocationCount() {
+			return MemoryStatistics.getAllocationCount() - MemoryStatistics.getFreeCount();
+		}
+
+		@Override
+		public long getBytesAllocated() {
+			return MemoryStatistics.getBytesAllocated();
+		}
+
+		@Override
+		public long getBytesLive() {
+			return MemoryStatistics.getBytesLive();
+		}
+
+		@Override
+		public long[] getSizeClassHistogram() {
+			Snapshot snapshot = getSnapshot();
+
+			long[] histogram = new long[SIZE_CLASSES];
+			for ( int i = 0; i < SIZE_CLASSES; i++ )
+				histogram[i] = snapshot.getHistogram(i);
+			return histogram;
+		}
+
+	}
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+/**
+ * The JMX management interface of {@link MemoryStatistics}.
+ *
+ * @see MemoryStatistics#registerMBean
+ */
+public interface MemoryStatisticsMBean {
+
+	/** Returns the total number of allocations. */
+	long getAllocationCount();
+
+	/** Returns the total number of frees. */
+	long getFreeCount();
+
+	/** Returns the number of live allocations. */
+	long getLiveAllocationCount();
+
+	/** Returns the total number of bytes requested by all allocations. */
+	long getBytesAllocated();
+
+	/** Returns the number of live bytes, or -1 if not available. */
+	long getBytesLive();
+
+	/** Returns the number of allocations per power-of-two size class. */
+	long[] getSizeClassHistogram();
+
+}
@@ -5,8 +5,10 @@
 package org.lwjgl.system;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static java.lang.Character.*;
+import static org.lwjgl.system.MemoryUtil.*;
 
 /**
  * This class serves two purposes:
@@ -17,9 +19,82 @@ import static java.lang.Character.*;
  */
 class MemoryTextUtil {
 
+	private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+	/** The high bit of each byte in a word. A word of ASCII characters has none of these bits set. */
+	private static final long NON_ASCII_MASK = 0x8080808080808080L;
+
 	protected MemoryTextUtil() {
 	}
 
+	/**
+	 * Returns the number of ASCII bytes at the start of the specified memory block. The block is scanned 8 bytes at a time.
+	 *
+	 * @param address the memory address
+	 * @param length  the number of bytes to scan
+	 */
+	static int asciiLength(long address, int length) {
+		int i = 0;
+
+		for ( ; i <= length - 8; i += 8 ) {
+			if ( (memGetLong(address + i) & NON_ASCII_MASK) != 0L )
+				break;
+		}
+
+		for ( ; i < length; i++ ) {
+			if ( memGetByte(address + i) < 0 )
+				break;
+		}
+
+		return i;
+	}
+
+	/**
+	 * Packs 8 characters into a word, in native byte order, so that they can be written to memory with a single store.
+	 *
+	 * @param text   the text to pack
+	 * @param offset the offset of the first character
+	 *
+	 * @return the packed characters, or -1 if any of the characters is not ASCII
+	 */
+	static long packASCII(CharSequence text, int offset) {
+		long word = 0L;
+		int bits = 0;
+
+		for ( int i = 0; i < 8; i++ ) {
+			char c = text.charAt(offset + i);
+			bits |= c;
+			word |= (long)c << (BIG_ENDIAN ? 56 - (i << 3) : i << 3);
+		}
+
+		return bits < 0x80 ? word : -1L;
+	}
+
+	/** Creates a string from ASCII bytes in memory, with a single bulk copy to the Java heap. */
+	@SuppressWarnings("deprecation")
+	private static String decodeASCII(long address, int length) {
+		byte[] bytes = new byte[length];
+		memCopy(address, bytes, 0, length);
+
+		// Zero high byte: each byte is widened to a char without sign extension. This is a plain copy with compact strings.
+		return new String(bytes, 0, 0, length);
+	}
+
+	/**
+	 * Copies ASCII bytes from memory to the start of a char array, with a single bulk copy to the Java heap.
+	 *
+	 * @return the number of characters copied
+	 */
+	private static int decodeASCII(long address, int length, char[] chars) {
+		byte[] bytes = new byte[length];
+		memCopy(address, bytes, 0, length);
+
+		for ( int i = 0; i < length; i++ )
+			chars[i] = (char)bytes[i];
+
+		return length;
+	}
+
 	/** @see MemoryUtil#memASCII(CharSequence, boolean, ByteBuffer, int) */
 	int encodeASCII(CharSequence text, boolean nullTerminated, ByteBuffer target, int offset) {
 		int p = offset;
@@ -35,9 +110,22 @@ class MemoryTextUtil {
 
 	/** @see MemoryUtil#memASCII(ByteBuffer, int, int)  */
 	static String decodeASCII(ByteBuffer buffer, int length, int offset) {
-		char[] chars = new char[length];
+		int i = 0;
+		char[] chars;
 
-		for ( int i = 0; i < length; i++ )
+		if ( buffer.isDirect() ) {
+			long address = memAddress0(buffer) + offset;
+
+			int ascii = asciiLength(address, length);
+			if ( ascii == length )
+				return decodeASCII(address, length);
+
+			chars = new char[length];
+			i = decodeASCII(address, ascii, chars);
+		} else
+			chars = new char[length];
+
+		for ( ; i < length; i++ )
 			chars[i] = (char)buffer.get(offset + i);
 
 		return new String(chars);
@@ -148,9 +236,23 @@ class MemoryTextUtil {
 
 	/** @see MemoryUtil#memUTF8(ByteBuffer, int, int)  */
 	static String decodeUTF8(ByteBuffer buffer, int length, int offset) {
-		char[] string = new char[length];
+		int i = 0;
+		char[] string;
+
+		if ( buffer.isDirect() ) {
+			long address = memAddress0(buffer) + offset;
+
+			int ascii = asciiLength(address, length);
+			if ( ascii == length )
+				return decodeASCII(address, length);
+
+			// Bulk copy the ASCII prefix, the scalar decoder starts at the first non-ASCII byte
+			string = new char[length];
+			i = decodeASCII(address, ascii, string);
+		} else
+			string = new char[length];
 
-		int i = 0, position = offset, limit = offset + length;
+		int position = offset + i, limit = offset + length;
 
 		// fast path
 		while ( position < limit ) {
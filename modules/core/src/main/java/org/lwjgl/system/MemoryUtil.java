@@ -8,6 +8,7 @@ import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryAccess.MemoryAccessor;
 import org.lwjgl.system.MemoryManage.DebugAllocator;
 import org.lwjgl.system.MemoryUtil.MemoryAllocationReport.Aggregate;
+import org.lwjgl.util.xxhash.XXHash;
 
 import java.nio.*;
 
@@ -72,11 +73,18 @@ public final class MemoryUtil {
 		static final MemoryAllocator ALLOCATOR_IMPL;
 		static final MemoryAllocator ALLOCATOR;
 
+		static final boolean DEBUG_ALLOCATOR;
+
+		/** The allocator, if it supports sized deallocation and in-place reallocation, or null. */
+		static final SizedMemoryAllocator SIZED_ALLOCATOR;
+
 		static {
 			ALLOCATOR_IMPL = MemoryManage.getInstance();
 			ALLOCATOR = Configuration.DEBUG_MEMORY_ALLOCATOR.get(false)
 				? new DebugAllocator(ALLOCATOR_IMPL)
 				: ALLOCATOR_IMPL;
+			DEBUG_ALLOCATOR = ALLOCATOR != ALLOCATOR_IMPL;
+			SIZED_ALLOCATOR = ALLOCATOR instanceof SizedMemoryAllocator ? (SizedMemoryAllocator)ALLOCATOR : null;
 
 			ALLOCATOR.config(
 				MemoryAccess.malloc(),
@@ -140,6 +148,36 @@ public final class MemoryUtil {
 
 	}
 
+	/**
+	 * A {@link MemoryAllocator} that also supports sized deallocation and in-place reallocation.
+	 *
+	 * <p>Knowing the size of an allocation when it is freed lets the allocator skip a metadata lookup. The jemalloc allocator implements this interface with
+	 * {@code sdallocx} and {@code xallocx}.</p>
+	 */
+	public interface SizedMemoryAllocator extends MemoryAllocator {
+
+		/**
+		 * Called by {@link MemoryUtil#nmemFree(long, long)}.
+		 *
+		 * @param ptr  the memory block to free. Never {@link #NULL}.
+		 * @param size the size that was requested when the memory block was allocated. Never zero.
+		 */
+		void free(long ptr, long size);
+
+		/**
+		 * Called by {@link MemoryUtil#nmemReallocInPlace}. Attempts to resize the specified memory block, without moving it.
+		 *
+		 * <p>Implementations may leave the memory block unchanged and return zero if {@code size} is not greater than its usable size.</p>
+		 *
+		 * @param ptr  the memory block to resize. Never {@link #NULL}.
+		 * @param size the new size. Never zero.
+		 *
+		 * @return the usable size of the memory block after the call, or zero. The call succeeded if this value is greater than or equal to {@code size}.
+		 */
+		long realloc_in_place(long ptr, long size);
+
+	}
+
 	/**
 	 * Returns the {@link MemoryAllocator} instance used internally by the explicit memory management API ({@link #memAlloc}, {@link #memFree}, etc).
 	 *
@@ -159,7 +197,12 @@ public final class MemoryUtil {
 
 	/** Unsafe version of {@link #memAlloc}. */
 	public static long nmemAlloc(long size) {
-		return ALLOCATOR.malloc(size);
+		long address = ALLOCATOR.malloc(size);
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.allocated(address, size);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagAllocated(address, size);
+		return address;
 	}
 
 	/**
@@ -236,9 +279,35 @@ public final class MemoryUtil {
 
 	/** Unsafe version of {@link #memFree}. */
 	public static void nmemFree(long ptr) {
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.freed(ptr);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagFreed(ptr);
 		ALLOCATOR.free(ptr);
 	}
 
+	/**
+	 * Sized version of {@link #nmemFree(long)}.
+	 *
+	 * <p>If the allocator implements {@link SizedMemoryAllocator}, the size is passed to the allocator, which may use it to avoid a metadata lookup.
+	 * Otherwise, this method is equivalent to {@link #nmemFree(long)}.</p>
+	 *
+	 * @param ptr  pointer to a memory block previously allocated with {@link #memAlloc}, {@link #memCalloc} or {@link #memRealloc}
+	 * @param size the size of the memory block, as requested when it was allocated or last reallocated
+	 */
+	public static void nmemFree(long ptr, long size) {
+		if ( SIZED_ALLOCATOR == null || ptr == NULL || size == 0L ) {
+			nmemFree(ptr);
+			return;
+		}
+
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.freed(ptr);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagFreed(ptr);
+		SIZED_ALLOCATOR.free(ptr, size);
+	}
+
 	/**
 	 * The standard C free function.
 	 *
@@ -262,7 +331,12 @@ public final class MemoryUtil {
 
 	/** Unsafe version of {@link #memCalloc}. */
 	public static long nmemCalloc(long num, long size) {
-		return ALLOCATOR.calloc(num, size);
+		long address = ALLOCATOR.calloc(num, size);
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.allocated(address, num * size);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagAllocated(address, num * size);
+		return address;
 	}
 
 	/**
@@ -351,7 +425,43 @@ public final class MemoryUtil {
 
 	/** Unsafe version of {@link #memRealloc}. */
 	public static long nmemRealloc(long ptr, long size) {
-		return ALLOCATOR.realloc(ptr, size);
+		long usableSize = MemoryStatistics.ENABLED ? MemoryStatistics.usableSize(ptr) : 0L;
+
+		// Not tried in place first, realloc already does that without a second metadata lookup
+		long address = ALLOCATOR.realloc(ptr, size);
+
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.reallocated(ptr, usableSize, address, size);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagReallocated(ptr, address, size);
+		return address;
+	}
+
+	/**
+	 * Attempts to resize the specified memory block, without moving it.
+	 *
+	 * <p>This is useful for data structures that can grow cheaply when the allocator has space available after a memory block, but would rather use a
+	 * different strategy than copying the data to a new memory block. It is only supported if the allocator implements {@link SizedMemoryAllocator}.</p>
+	 *
+	 * @param ptr  pointer to a memory block previously allocated with {@link #memAlloc}, {@link #memCalloc} or {@link #memRealloc}
+	 * @param size the new size, in bytes
+	 *
+	 * @return true if the memory block now has at least {@code size} bytes, false if it was left unchanged. If true, {@code size} must be passed to
+	 * {@link #nmemFree(long, long)} from now on.
+	 */
+	public static boolean nmemReallocInPlace(long ptr, long size) {
+		if ( SIZED_ALLOCATOR == null || ptr == NULL || size == 0L )
+			return false;
+
+		long usableSize = MemoryStatistics.ENABLED ? MemoryStatistics.usableSize(ptr) : 0L;
+		if ( SIZED_ALLOCATOR.realloc_in_place(ptr, size) < size )
+			return false;
+
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.reallocated(ptr, usableSize, ptr, size);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagReallocated(ptr, ptr, size);
+		return true;
 	}
 
 	/**
@@ -494,7 +604,12 @@ public final class MemoryUtil {
 
 	/** Unsafe version of {@link #memAlignedAlloc}. */
 	public static long nmemAlignedAlloc(long alignment, long size) {
-		return ALLOCATOR.aligned_alloc(alignment, size);
+		long address = ALLOCATOR.aligned_alloc(alignment, size);
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.allocated(address, size);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagAllocated(address, size);
+		return address;
 	}
 
 	/**
@@ -507,13 +622,17 @@ public final class MemoryUtil {
 	 * @param size      the number of bytes to allocate. Must be a multiple of {@code alignment}.
 	 */
 	public static ByteBuffer memAlignedAlloc(int alignment, int size) {
-		return memByteBuffer(ALLOCATOR.aligned_alloc(alignment, size), size);
+		return memByteBuffer(nmemAlignedAlloc(alignment, size), size);
 	}
 
 	// --- [ memAlignedFree ] ---
 
 	/** Unsafe version of {@link #memAlignedFree}. */
 	public static void nmemAlignedFree(long ptr) {
+		if ( MemoryStatistics.ENABLED )
+			MemoryStatistics.freed(ptr);
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.tagFreed(ptr);
 		ALLOCATOR.aligned_free(ptr);
 	}
 
@@ -579,6 +698,168 @@ public final class MemoryUtil {
 		DebugAllocator.report(report, groupByStackTrace, groupByThread);
 	}
 
+	// --- [ Allocation tags ] ---
+
+	/** The default allocation tag. */
+	public static final int MEM_TAG_NONE = 0;
+
+	/** The number of allocation tags. Valid tags are in the range {@code [0, MEM_TAG_COUNT)}. */
+	public static final int MEM_TAG_COUNT = 256;
+
+	/** The memory allocation report callback, for allocations aggregated by tag. */
+	public interface MemoryTagReport {
+
+		/**
+		 * Reports the memory allocated with a tag.
+		 *
+		 * @param tag    the allocation tag
+		 * @param memory the amount of memory allocated, in bytes
+		 * @param count  the number of allocations
+		 */
+		void invoke(int tag, long memory, long count);
+
+	}
+
+	/** Returns true if allocation tags are tracked, by the debug allocator or by {@link MemoryStatistics}. */
+	static boolean isTagTracked() {
+		return DEBUG_ALLOCATOR || MemoryStatistics.TAGS;
+	}
+
+	private static void checkTag(int tag) {
+		if ( tag < 0 || MEM_TAG_COUNT <= tag )
+			throw new IllegalArgumentException("Invalid allocation tag: " + tag);
+	}
+
+	/**
+	 * Sets the allocation tag of the current thread and returns the previous tag.
+	 *
+	 * <p>Allocation tags are small integer categories, defined by the application, that identify the subsystem responsible for an allocation. All
+	 * allocations made through the explicit memory management API by the current thread are tagged with the current tag, until the previous tag is restored:
+	 * </p>
+	 *
+	 * <pre><code>
+	 * int previous = memSetTag(TAG_IMAGES);
+	 * try {
+	 *     ...
+	 * } finally {
+	 *     memSetTag(previous);
+	 * }</code></pre>
+	 *
+	 * <p>Reallocated memory keeps its tag. The live bytes of each tag can be reported with {@link #memReport(MemoryTagReport)} or {@link #memGetTagBytes}.
+	 * Tags are tracked if the {@link Configuration#MEMORY_STATISTICS_TAGS} option is enabled, which is suitable for production use, or if the
+	 * {@link Configuration#DEBUG_MEMORY_ALLOCATOR} option is enabled, which also attributes each allocation to its stack trace. Otherwise, this method does
+	 * nothing and returns {@link #MEM_TAG_NONE}.</p>
+	 *
+	 * @param tag the new allocation tag, in the range {@code [0, }{@link #MEM_TAG_COUNT}{@code )}
+	 *
+	 * @return the previous allocation tag
+	 */
+	public static int memSetTag(int tag) {
+		if ( !isTagTracked() )
+			return MEM_TAG_NONE;
+
+		checkTag(tag);
+
+		ThreadLocalState tls = ThreadLocalUtil.tlsGet();
+
+		int previous = tls.memoryTag;
+		tls.memoryTag = tag;
+		return previous;
+	}
+
+	/** Returns the allocation tag of the current thread. */
+	public static int memGetTag() {
+		return isTagTracked() ? ThreadLocalUtil.tlsGet().memoryTag : MEM_TAG_NONE;
+	}
+
+	/**
+	 * Tagged version of {@link #nmemAlloc(long)}. The allocation is tagged with {@code tag}, regardless of the current thread's tag.
+	 *
+	 * @param size the size of the memory block to allocate, in bytes
+	 * @param tag  the allocation tag
+	 */
+	public static long nmemAlloc(long size, int tag) {
+		if ( !isTagTracked() )
+			return nmemAlloc(size);
+
+		int previous = memSetTag(tag);
+		try {
+			return nmemAlloc(size);
+		} finally {
+			memSetTag(previous);
+		}
+	}
+
+	/**
+	 * Tagged version of {@link #memAlloc(int)}.
+	 *
+	 * @param size the size of the memory block to allocate, in bytes
+	 * @param tag  the allocation tag
+	 */
+	public static ByteBuffer memAlloc(int size, int tag) {
+		return memByteBuffer(nmemAlloc(size, tag), size);
+	}
+
+	/**
+	 * Tagged version of {@link #nmemCalloc(long, long)}. The allocation is tagged with {@code tag}, regardless of the current thread's tag.
+	 *
+	 * @param num  the number of elements to allocate
+	 * @param size the size of each element
+	 * @param tag  the allocation tag
+	 */
+	public static long nmemCalloc(long num, long size, int tag) {
+		if ( !isTagTracked() )
+			return nmemCalloc(num, size);
+
+		int previous = memSetTag(tag);
+		try {
+			return nmemCalloc(num, size);
+		} finally {
+			memSetTag(previous);
+		}
+	}
+
+	/**
+	 * Tagged version of {@link #memCalloc(int, int)}.
+	 *
+	 * @param num  the number of elements to allocate
+	 * @param size the size of each element
+	 * @param tag  the allocation tag
+	 */
+	public static ByteBuffer memCalloc(int num, int size, int tag) {
+		return memByteBuffer(nmemCalloc(num, size, tag), num * size);
+	}
+
+	/**
+	 * Returns the number of live bytes allocated with the specified tag.
+	 *
+	 * <p>This method can only be used if the {@link Configuration#MEMORY_STATISTICS_TAGS} or the {@link Configuration#DEBUG_MEMORY_ALLOCATOR} option has
+	 * been set to true.</p>
+	 *
+	 * @param tag the allocation tag
+	 */
+	public static long memGetTagBytes(int tag) {
+		checkTag(tag);
+		return MemoryStatistics.TAGS
+			? MemoryStatistics.getTagBytes(tag)
+			: DebugAllocator.getTagBytes(tag);
+	}
+
+	/**
+	 * Reports the live allocations, aggregated by tag.
+	 *
+	 * <p>This method can only be used if the {@link Configuration#MEMORY_STATISTICS_TAGS} or the {@link Configuration#DEBUG_MEMORY_ALLOCATOR} option has
+	 * been set to true.</p>
+	 *
+	 * @param report the report callback
+	 */
+	public static void memReport(MemoryTagReport report) {
+		if ( MemoryStatistics.TAGS )
+			MemoryStatistics.report(report);
+		else
+			DebugAllocator.report(report);
+	}
+
 	/*  -------------------------------------
 		-------------------------------------
 				BUFFER MANAGEMENT API
@@ -1020,6 +1301,11 @@ public final class MemoryUtil {
 	 * <p>ByteBuffer instance modification might not be possible. In that case this method behaves exactly like {@link #memByteBuffer}, so the returned
 	 * instance should always replace the input one.</p>
 	 *
+	 * <p>This method is intended for hot loops that would otherwise create a new buffer instance per iteration, such as iterating over mapped buffer
+	 * ranges or struct array fields (generated struct getters provide overloads that accept a target buffer). The instance is modified in place without
+	 * synchronization, so it must be confined to a single thread. Buffers derived from the instance, such as slices, duplicates or typed views, are not
+	 * affected and still point to the previous memory.</p>
+	 *
 	 * @param buffer   the ByteBuffer to modify
 	 * @param address  the starting memory address
 	 * @param capacity the buffer capacity
@@ -1160,6 +1446,18 @@ public final class MemoryUtil {
 	 * @param bytes the number of bytes to set
 	 */
 	public static void memSet(long ptr, int value, int bytes) {
+		memSet(ptr, value, (long)bytes);
+	}
+
+	/**
+	 * Long version of {@link #memSet(long, int, int)}, for memory blocks larger than 2GB. Large blocks are processed in batches, so that the JVM can reach a
+	 * safepoint between them.
+	 *
+	 * @param ptr   the starting memory address
+	 * @param value the value to set (memSet will convert it to unsigned byte)
+	 * @param bytes the number of bytes to set
+	 */
+	public static void memSet(long ptr, int value, long bytes) {
 		if ( Checks.DEBUG && (ptr == NULL || bytes < 0) )
 			throw new IllegalArgumentException();
 
@@ -1174,12 +1472,413 @@ public final class MemoryUtil {
 	 * @param bytes the number of bytes to copy
 	 */
 	public static void memCopy(long src, long dst, int bytes) {
+		memCopy(src, dst, (long)bytes);
+	}
+
+	/**
+	 * Long version of {@link #memCopy(long, long, int)}, for memory blocks larger than 2GB. Large blocks are processed in batches, so that the JVM can reach
+	 * a safepoint between them.
+	 *
+	 * @param src   the source memory address
+	 * @param dst   the destination memory address
+	 * @param bytes the number of bytes to copy
+	 */
+	public static void memCopy(long src, long dst, long bytes) {
 		if ( Checks.DEBUG && (src == NULL || dst == NULL || bytes < 0) )
 			throw new IllegalArgumentException();
 
 		ACCESSOR.memCopy(src, dst, bytes);
 	}
 
+	/**
+	 * Copies elements between memory blocks with different layouts, for example from a tightly packed array of vertex positions to an interleaved vertex
+	 * buffer, or the reverse.
+	 *
+	 * <p>Element {@code i} is copied from {@code src + i * srcStride} to {@code dst + i * dstStride}. The source and destination must not overlap.</p>
+	 *
+	 * @param src         the source memory address
+	 * @param srcStride   the distance between consecutive source elements, in bytes
+	 * @param dst         the destination memory address
+	 * @param dstStride   the distance between consecutive destination elements, in bytes
+	 * @param elementSize the size of each element, in bytes
+	 * @param count       the number of elements to copy
+	 */
+	public static void memCopyStrided(long src, int srcStride, long dst, int dstStride, int elementSize, int count) {
+		if ( Checks.DEBUG && (src == NULL || dst == NULL || srcStride < 0 || dstStride < 0 || elementSize < 0 || count < 0) )
+			throw new IllegalArgumentException();
+
+		ACCESSOR.memCopyStrided(src, srcStride, dst, dstStride, elementSize, count);
+	}
+
+	/**
+	 * Copies tightly packed elements from a {@code float} array to native memory with the specified stride. For example, an array of 3-component normals can
+	 * be copied to an interleaved vertex buffer with {@code components = 3}.
+	 *
+	 * @param src        the source array
+	 * @param srcIndex   the index of the first array element to copy
+	 * @param components the number of {@code float} components per element
+	 * @param dst        the destination memory address
+	 * @param dstStride  the distance between consecutive destination elements, in bytes
+	 * @param count      the number of elements to copy
+	 *
+	 * @throws IndexOutOfBoundsException if the range is outside the array bounds
+	 * @throws IllegalArgumentException  if {@code dstStride} is less than the element size
+	 */
+	public static void memCopyStrided(float[] src, int srcIndex, int components, long dst, int dstStride, int count) {
+		checkStridedRange(src.length, srcIndex, components, dstStride, count, dst);
+		ACCESSOR.memCopyStrided(src, srcIndex, components, dst, dstStride, count);
+	}
+
+	/**
+	 * Copies elements with the specified stride from native memory to a {@code float} array, tightly packed.
+	 *
+	 * @param src        the source memory address
+	 * @param srcStride  the distance between consecutive source elements, in bytes
+	 * @param dst        the destination array
+	 * @param dstIndex   the index of the first array element to copy to
+	 * @param components the number of {@code float} components per element
+	 * @param count      the number of elements to copy
+	 *
+	 * @throws IndexOutOfBoundsException if the range is outside the array bounds
+	 * @throws IllegalArgumentException  if {@code srcStride} is less than the element size
+	 */
+	public static void memCopyStrided(long src, int srcStride, float[] dst, int dstIndex, int components, int count) {
+		checkStridedRange(dst.length, dstIndex, components, srcStride, count, src);
+		ACCESSOR.memCopyStrided(src, srcStride, dst, dstIndex, components, count);
+	}
+
+	/**
+	 * Copies elements from a primitive array to native memory.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of elements to copy
+	 *
+	 * @throws IndexOutOfBoundsException if the range is outside the array bounds
+	 */
+	public static void memCopy(byte[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		ACCESSOR.memCopy(src, (long)srcIndex, dst, (long)length);
+	}
+
+	/** {@code short[]} version of {@link #memCopy(byte[], int, long, int)}. */
+	public static void memCopy(short[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		ACCESSOR.memCopy(src, (long)srcIndex << 1, dst, (long)length << 1);
+	}
+
+	/** {@code int[]} version of {@link #memCopy(byte[], int, long, int)}. */
+	public static void memCopy(int[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		ACCESSOR.memCopy(src, (long)srcIndex << 2, dst, (long)length << 2);
+	}
+
+	/** {@code long[]} version of {@link #memCopy(byte[], int, long, int)}. */
+	public static void memCopy(long[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		ACCESSOR.memCopy(src, (long)srcIndex << 3, dst, (long)length << 3);
+	}
+
+	/** {@code float[]} version of {@link #memCopy(byte[], int, long, int)}. */
+	public static void memCopy(float[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		ACCESSOR.memCopy(src, (long)srcIndex << 2, dst, (long)length << 2);
+	}
+
+	/** {@code double[]} version of {@link #memCopy(byte[], int, long, int)}. */
+	public static void memCopy(double[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		ACCESSOR.memCopy(src, (long)srcIndex << 3, dst, (long)length << 3);
+	}
+
+	/**
+	 * Copies native memory to elements of a primitive array.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first element to copy to
+	 * @param length   the number of elements to copy
+	 *
+	 * @throws IndexOutOfBoundsException if the range is outside the array bounds
+	 */
+	public static void memCopy(long src, byte[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		ACCESSOR.memCopy(src, dst, (long)dstIndex, (long)length);
+	}
+
+	/** {@code short[]} version of {@link #memCopy(long, byte[], int, int)}. */
+	public static void memCopy(long src, short[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		ACCESSOR.memCopy(src, dst, (long)dstIndex << 1, (long)length << 1);
+	}
+
+	/** {@code int[]} version of {@link #memCopy(long, byte[], int, int)}. */
+	public static void memCopy(long src, int[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		ACCESSOR.memCopy(src, dst, (long)dstIndex << 2, (long)length << 2);
+	}
+
+	/** {@code long[]} version of {@link #memCopy(long, byte[], int, int)}. */
+	public static void memCopy(long src, long[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		ACCESSOR.memCopy(src, dst, (long)dstIndex << 3, (long)length << 3);
+	}
+
+	/** {@code float[]} version of {@link #memCopy(long, byte[], int, int)}. */
+	public static void memCopy(long src, float[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		ACCESSOR.memCopy(src, dst, (long)dstIndex << 2, (long)length << 2);
+	}
+
+	/** {@code double[]} version of {@link #memCopy(long, byte[], int, int)}. */
+	public static void memCopy(long src, double[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		ACCESSOR.memCopy(src, dst, (long)dstIndex << 3, (long)length << 3);
+	}
+
+	/** Validates a strided copy of {@code count} elements of {@code components} floats each, between a {@code float} array and native memory. */
+	private static void checkStridedRange(int arrayLength, int index, int components, int stride, int count, long address) {
+		if ( Checks.CHECKS ) {
+			long length = (long)components * count;
+			if ( index < 0 || components < 0 || count < 0 || arrayLength - index < length )
+				throw new IndexOutOfBoundsException("Array length: " + arrayLength + ", index: " + index + ", components: " + components + ", count: " + count);
+
+			if ( stride < (long)components << 2 )
+				throw new IllegalArgumentException("The stride is less than the element size: " + stride + " < " + ((long)components << 2));
+		}
+
+		if ( Checks.DEBUG && address == NULL )
+			throw new IllegalArgumentException();
+	}
+
+	private static void checkArrayRange(int arrayLength, int index, int length, long address) {
+		if ( Checks.CHECKS && (index < 0 || length < 0 || arrayLength - index < length) )
+			throw new IndexOutOfBoundsException("Array length: " + arrayLength + ", index: " + index + ", length: " + length);
+
+		if ( Checks.DEBUG && address == NULL )
+			throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Like {@link #memCopy(short[], int, long, int)}, but reverses the byte order of each element. Can be used to write data in the opposite of the native
+	 * byte order, for example to a big-endian file format on a little-endian CPU.
+	 *
+	 * @param src      the source array
+	 * @param srcIndex the index of the first element to copy
+	 * @param dst      the destination memory address
+	 * @param length   the number of elements to copy
+	 *
+	 * @throws IndexOutOfBoundsException if the range is outside the array bounds
+	 */
+	public static void memCopySwapped(short[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		for ( int i = 0; i < length; i++ )
+			ACCESSOR.memPutShort(dst + ((long)i << 1), Short.reverseBytes(src[srcIndex + i]));
+	}
+
+	/** {@code int[]} version of {@link #memCopySwapped(short[], int, long, int)}. */
+	public static void memCopySwapped(int[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		for ( int i = 0; i < length; i++ )
+			ACCESSOR.memPutInt(dst + ((long)i << 2), Integer.reverseBytes(src[srcIndex + i]));
+	}
+
+	/** {@code long[]} version of {@link #memCopySwapped(short[], int, long, int)}. */
+	public static void memCopySwapped(long[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		for ( int i = 0; i < length; i++ )
+			ACCESSOR.memPutLong(dst + ((long)i << 3), Long.reverseBytes(src[srcIndex + i]));
+	}
+
+	/** {@code float[]} version of {@link #memCopySwapped(short[], int, long, int)}. */
+	public static void memCopySwapped(float[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		for ( int i = 0; i < length; i++ )
+			ACCESSOR.memPutInt(dst + ((long)i << 2), Integer.reverseBytes(Float.floatToRawIntBits(src[srcIndex + i])));
+	}
+
+	/** {@code double[]} version of {@link #memCopySwapped(short[], int, long, int)}. */
+	public static void memCopySwapped(double[] src, int srcIndex, long dst, int length) {
+		checkArrayRange(src.length, srcIndex, length, dst);
+		for ( int i = 0; i < length; i++ )
+			ACCESSOR.memPutLong(dst + ((long)i << 3), Long.reverseBytes(Double.doubleToRawLongBits(src[srcIndex + i])));
+	}
+
+	/**
+	 * Like {@link #memCopy(long, short[], int, int)}, but reverses the byte order of each element. Can be used to read data in the opposite of the native
+	 * byte order, for example from a big-endian file format on a little-endian CPU.
+	 *
+	 * @param src      the source memory address
+	 * @param dst      the destination array
+	 * @param dstIndex the index of the first element to copy to
+	 * @param length   the number of elements to copy
+	 *
+	 * @throws IndexOutOfBoundsException if the range is outside the array bounds
+	 */
+	public static void memCopySwapped(long src, short[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		for ( int i = 0; i < length; i++ )
+			dst[dstIndex + i] = Short.reverseBytes(ACCESSOR.memGetShort(src + ((long)i << 1)));
+	}
+
+	/** {@code int[]} version of {@link #memCopySwapped(long, short[], int, int)}. */
+	public static void memCopySwapped(long src, int[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		for ( int i = 0; i < length; i++ )
+			dst[dstIndex + i] = Integer.reverseBytes(ACCESSOR.memGetInt(src + ((long)i << 2)));
+	}
+
+	/** {@code long[]} version of {@link #memCopySwapped(long, short[], int, int)}. */
+	public static void memCopySwapped(long src, long[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		for ( int i = 0; i < length; i++ )
+			dst[dstIndex + i] = Long.reverseBytes(ACCESSOR.memGetLong(src + ((long)i << 3)));
+	}
+
+	/** {@code float[]} version of {@link #memCopySwapped(long, short[], int, int)}. */
+	public static void memCopySwapped(long src, float[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		for ( int i = 0; i < length; i++ )
+			dst[dstIndex + i] = Float.intBitsToFloat(Integer.reverseBytes(ACCESSOR.memGetInt(src + ((long)i << 2))));
+	}
+
+	/** {@code double[]} version of {@link #memCopySwapped(long, short[], int, int)}. */
+	public static void memCopySwapped(long src, double[] dst, int dstIndex, int length) {
+		checkArrayRange(dst.length, dstIndex, length, src);
+		for ( int i = 0; i < length; i++ )
+			dst[dstIndex + i] = Double.longBitsToDouble(Long.reverseBytes(ACCESSOR.memGetLong(src + ((long)i << 3))));
+	}
+
+	private static final boolean NATIVE_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+	/**
+	 * Compares two blocks of memory, like the standard C {@code memcmp} function. The blocks are compared 8 bytes at a time.
+	 *
+	 * @param a     the first memory address
+	 * @param b     the second memory address
+	 * @param bytes the number of bytes to compare
+	 *
+	 * @return zero if the blocks are equal. Otherwise, a negative or positive value if the first byte that differs, interpreted as unsigned, is lower or higher
+	 * in {@code a} than in {@code b}.
+	 */
+	public static int memCompare(long a, long b, long bytes) {
+		if ( Checks.DEBUG && (a == NULL || b == NULL || bytes < 0) )
+			throw new IllegalArgumentException();
+
+		long i = 0L;
+		for ( ; i <= bytes - 8L; i += 8L ) {
+			long diff = ACCESSOR.memGetLong(a + i) ^ ACCESSOR.memGetLong(b + i);
+			if ( diff != 0L ) {
+				i += NATIVE_BIG_ENDIAN ? Long.numberOfLeadingZeros(diff) >>> 3 : Long.numberOfTrailingZeros(diff) >>> 3;
+				return (ACCESSOR.memGetByte(a + i) & 0xFF) - (ACCESSOR.memGetByte(b + i) & 0xFF);
+			}
+		}
+
+		for ( ; i < bytes; i++ ) {
+			int diff = (ACCESSOR.memGetByte(a + i) & 0xFF) - (ACCESSOR.memGetByte(b + i) & 0xFF);
+			if ( diff != 0 )
+				return diff;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Returns true if two blocks of memory have the same contents. The blocks are compared 8 bytes at a time.
+	 *
+	 * @param a     the first memory address
+	 * @param b     the second memory address
+	 * @param bytes the number of bytes to compare
+	 */
+	public static boolean memEquals(long a, long b, long bytes) {
+		if ( Checks.DEBUG && (a == NULL || b == NULL || bytes < 0) )
+			throw new IllegalArgumentException();
+
+		long i = 0L;
+		for ( ; i <= bytes - 8L; i += 8L ) {
+			if ( ACCESSOR.memGetLong(a + i) != ACCESSOR.memGetLong(b + i) )
+				return false;
+		}
+
+		for ( ; i < bytes; i++ ) {
+			if ( ACCESSOR.memGetByte(a + i) != ACCESSOR.memGetByte(b + i) )
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the offset of the first occurrence of a byte value in a block of memory, like the standard C {@code memchr} function. The block is scanned 8
+	 * bytes at a time.
+	 *
+	 * @param ptr   the memory address
+	 * @param bytes the number of bytes to search
+	 * @param value the value to search for
+	 *
+	 * @return the offset of the value from {@code ptr}, or -1 if the value was not found
+	 */
+	public static long memIndexOf(long ptr, long bytes, byte value) {
+		if ( Checks.DEBUG && (ptr == NULL || bytes < 0) )
+			throw new IllegalArgumentException();
+
+		long pattern = (value & 0xFFL) * 0x0101010101010101L;
+
+		long i = 0L;
+		for ( ; i <= bytes - 8L; i += 8L ) {
+			// Non-zero if the word contains a zero byte, i.e. a byte equal to value
+			long word = ACCESSOR.memGetLong(ptr + i) ^ pattern;
+			if ( ((word - 0x0101010101010101L) & ~word & 0x8080808080808080L) != 0L )
+				break;
+		}
+
+		for ( ; i < bytes; i++ ) {
+			if ( ACCESSOR.memGetByte(ptr + i) == value )
+				return i;
+		}
+
+		return -1L;
+	}
+
+	/**
+	 * Calculates the 64-bit xxhash of a block of memory, using {@link XXHash#XXH64 XXH64}.
+	 *
+	 * @param ptr   the memory address
+	 * @param bytes the number of bytes to hash
+	 * @param seed  the seed that can be used to alter the result predictably
+	 */
+	public static long memHash64(long ptr, long bytes, long seed) {
+		if ( Checks.DEBUG && (ptr == NULL || bytes < 0) )
+			throw new IllegalArgumentException();
+
+		return XXHash.nXXH64(ptr, bytes, seed);
+	}
+
+	/** Calls {@link #memHash64(long, long, long)} with a zero seed. */
+	public static long memHash64(long ptr, long bytes) {
+		return memHash64(ptr, bytes, 0L);
+	}
+
+	/**
+	 * Calculates the 32-bit xxhash of a block of memory, using {@link XXHash#XXH32 XXH32}.
+	 *
+	 * @param ptr   the memory address
+	 * @param bytes the number of bytes to hash
+	 * @param seed  the seed that can be used to alter the result predictably
+	 */
+	public static int memHash32(long ptr, long bytes, int seed) {
+		if ( Checks.DEBUG && (ptr == NULL || bytes < 0) )
+			throw new IllegalArgumentException();
+
+		return XXHash.nXXH32(ptr, bytes, seed);
+	}
+
+	/** Calls {@link #memHash32(long, long, int)} with a zero seed. */
+	public static int memHash32(long ptr, long bytes) {
+		return memHash32(ptr, bytes, 0);
+	}
+
 	public static boolean memGetBoolean(long ptr) {
 		return ACCESSOR.memGetByte(ptr) != 0;
 	}
@@ -54,6 +54,11 @@ public interface Pointer {
 			return address;
 		}
 
+		/** Re-points this instance to the specified address. [INTERNAL USE ONLY] */
+		void setAddress(long address) {
+			this.address = address;
+		}
+
 		protected void checkAddress() {
 			if ( Checks.CHECKS && address == NULL )
 				throw new NullPointerException();
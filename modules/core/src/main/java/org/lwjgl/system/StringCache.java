@@ -0,0 +1,187 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.BufferUtils;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.system.MathUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A bounded cache of conversions between null-terminated native strings and Java strings.
+ *
+ * <p>Decoding a native string with {@link #decode} returns the same {@link String} instance for the same string contents, as long as it remains in the
+ * cache. The contents are hashed in place with {@link MemoryUtil#memHash64 xxhash}, so a cache hit does not allocate or decode anything. This is useful for
+ * strings that are read repeatedly, such as extension names.</p>
+ *
+ * <p>Encoding a Java string with {@link #encode} returns the same null-terminated buffer for the same string, as long as it remains in the cache. This is
+ * useful for strings that are passed repeatedly to native functions, such as function names.</p>
+ *
+ * <p>The cache is direct-mapped: a new entry replaces the entry with the same hash index. Entries that have been evicted remain valid. Encoded buffers are
+ * allocated with {@link BufferUtils}, so they are reclaimed by the garbage collector when they are no longer referenced. Instances are thread-safe.
+ * Concurrent conversions may evict each other's entries, but never return wrong results.</p>
+ */
+public final class StringCache {
+
+	private static final class Entry {
+
+		/** The hash of the encoded string. Only valid for decoded strings. */
+		final long   hash;
+		final String string;
+
+		/** The encoded string, including the null-terminator. */
+		final ByteBuffer encoded;
+		final long       address;
+		final int        length;
+
+		Entry(long hash, String string, ByteBuffer encoded) {
+			this.hash = hash;
+			this.string = string;
+			this.encoded = encoded;
+			this.address = memAddress(encoded);
+			this.length = encoded.remaining() - 1;
+		}
+
+	}
+
+	private final boolean utf8;
+
+	private final int mask;
+
+	private final Entry[] decoded;
+	private final Entry[] encoded;
+
+	private StringCache(boolean utf8, int capacity) {
+		if ( capacity <= 0 )
+			throw new IllegalArgumentException();
+
+		this.utf8 = utf8;
+
+		capacity = mathRoundPoT(capacity);
+		this.mask = capacity - 1;
+
+		this.decoded = new Entry[capacity];
+		this.encoded = new Entry[capacity];
+	}
+
+	/**
+	 * Creates a new cache for ASCII strings.
+	 *
+	 * @param capacity the maximum number of cached strings in each direction. Rounded up to the next power-of-two.
+	 */
+	public static StringCache createASCII(int capacity) {
+		return new StringCache(false, capacity);
+	}
+
+	/**
+	 * Creates a new cache for UTF-8 strings.
+	 *
+	 * @param capacity the maximum number of cached strings in each direction. Rounded up to the next power-of-two.
+	 */
+	public static StringCache createUTF8(int capacity) {
+		return new StringCache(true, capacity);
+	}
+
+	/** Returns the maximum number of cached strings in each direction. */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Decodes the null-terminated string at the specified memory address.
+	 *
+	 * @param address the string memory address
+	 *
+	 * @return the decoded {@link String} or null if the specified {@code address} is null
+	 */
+	public String decode(long address) {
+		if ( address == NULL )
+			return null;
+
+		int length = 0;
+		while ( memGetByte(address + length) != 0 )
+			length++;
+
+		return decode(address, length);
+	}
+
+	/**
+	 * Decodes the string at the specified memory address.
+	 *
+	 * @param address the string memory address
+	 * @param length  the string length, in bytes, excluding any null-terminator
+	 *
+	 * @return the decoded {@link String}
+	 */
+	public String decode(long address, int length) {
+		long hash = memHash64(address, length);
+
+		Entry entry = decoded[index(hash)];
+		if ( entry != null && entry.hash == hash && entry.length == length && memEquals(address, entry.address, length) )
+			return entry.string;
+
+		ByteBuffer buffer = BufferUtils.createByteBuffer(length + 1);
+		memCopy(address, memAddress(buffer), length);
+
+		entry = new Entry(hash, utf8 ? memUTF8(buffer, length, 0) : memASCII(buffer, length, 0), buffer);
+
+		decoded[index(hash)] = entry;
+		// Decoding and re-encoding reproduces the same bytes
+		encoded[index(entry.string.hashCode())] = entry;
+		return entry.string;
+	}
+
+	/**
+	 * Returns the specified text encoded and null-terminated.
+	 *
+	 * <p>The returned buffer is shared by all callers and must not be modified. This includes its position and limit.</p>
+	 *
+	 * @param text the text to encode
+	 *
+	 * @return the encoded text or null if the specified {@code text} is null
+	 */
+	public ByteBuffer encode(String text) {
+		if ( text == null )
+			return null;
+
+		Entry entry = encoded[index(text.hashCode())];
+		if ( entry != null && entry.string.equals(text) )
+			return entry.encoded;
+
+		ByteBuffer buffer;
+		if ( utf8 ) {
+			buffer = BufferUtils.createByteBuffer(memLengthUTF8(text, true));
+			memUTF8(text, true, buffer);
+		} else {
+			buffer = BufferUtils.createByteBuffer(memLengthASCII(text, true));
+			memASCII(text, true, buffer);
+		}
+
+		// Not added to the decoded strings, the encoding may be lossy
+		entry = new Entry(0L, text, buffer);
+
+		encoded[index(text.hashCode())] = entry;
+		return entry.encoded;
+	}
+
+	/** Removes all entries from the cache. */
+	public void clear() {
+		for ( int i = 0; i <= mask; i++ ) {
+			decoded[i] = null;
+			encoded[i] = null;
+		}
+	}
+
+	private int index(long hash) {
+		return (int)(hash ^ (hash >>> 32)) & mask;
+	}
+
+	private int index(int hash) {
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+}
@@ -28,6 +28,12 @@ public abstract class Struct extends Pointer.Default {
 	/** Returns the {@code sizeof(struct)}. */
 	public abstract int sizeof();
 
+	/** Re-points this struct to the specified address, for use as a {@link StructBuffer} flyweight. */
+	void setAddress(long address, ByteBuffer container) {
+		setAddress(address);
+		this.container = container;
+	}
+
 	/** Zeroes-out the struct data. */
 	public void clear() {
 		memSet(address(), 0, sizeof());
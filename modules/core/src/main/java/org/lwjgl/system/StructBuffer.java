@@ -8,12 +8,33 @@ import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.InvalidMarkException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.lwjgl.system.MemoryUtil.*;
 
 /** This is the base class of struct data container implementations. Its interface mirrors the NIO API for convenience. */
 public abstract class StructBuffer<T extends Struct, SELF extends StructBuffer<T, SELF>> implements Pointer {
 
+	/**
+	 * Receives the structs of a {@link StructBuffer}, one at a time.
+	 *
+	 * @see #forEach
+	 */
+	public interface Visitor<T extends Struct> {
+
+		/**
+		 * Called for each struct.
+		 *
+		 * @param index  the struct index in the buffer
+		 * @param struct a flyweight that points to the struct. It is re-pointed to the next struct after this method returns, so it must not be stored.
+		 */
+		void visit(int index, T struct);
+
+	}
+
 	private long address;
 
 	private ByteBuffer container;
@@ -365,6 +386,157 @@ public abstract class StructBuffer<T extends Struct, SELF extends StructBuffer<T
 		return self();
 	}
 
+	// -- Flyweight operations --
+
+	/**
+	 * Returns a new struct instance that points to the struct at this buffer's current position. The instance can be re-pointed to other structs in this
+	 * buffer with {@link #point}, so that a loop over the buffer allocates a single instance instead of one per struct.
+	 *
+	 * @return the new flyweight
+	 */
+	public T flyweight() {
+		return newInstance(address());
+	}
+
+	/**
+	 * Re-points the specified flyweight to the struct at the specified index. No struct instance is allocated.
+	 *
+	 * <p>The flyweight should be an instance returned by {@link #flyweight}. Any code that holds a reference to it will observe the new address. A flyweight
+	 * must not be shared between threads.</p>
+	 *
+	 * <pre><code>Vertex v = vertices.flyweight();
+	 * for ( int i = 0; i &lt; vertices.limit(); i++ )
+	 *     sum += vertices.point(v, i).x();</code></pre>
+	 *
+	 * @param flyweight the struct instance to re-point
+	 * @param index     the struct index
+	 *
+	 * @return the flyweight
+	 *
+	 * @throws IndexOutOfBoundsException If <tt>index</tt> is negative or not smaller than the buffer's limit
+	 */
+	public T point(T flyweight, int index) {
+		flyweight.setAddress(address + (long)checkIndex(index) * sizeof(), container);
+		return flyweight;
+	}
+
+	/**
+	 * Calls the specified visitor for each struct between this buffer's current position and its limit, in order. A single flyweight is re-pointed to each
+	 * struct. The buffer's position is not modified.
+	 *
+	 * @param visitor the visitor
+	 */
+	public void forEach(Visitor<? super T> visitor) {
+		forEach(position, limit, visitor);
+	}
+
+	/**
+	 * Calls the specified visitor for each struct in the specified index range, in order. A single flyweight is re-pointed to each struct. The buffer's
+	 * position is not modified.
+	 *
+	 * <p>Disjoint index ranges may be processed concurrently by different threads, see {@link #forEach(Visitor, Executor, int)}.</p>
+	 *
+	 * @param fromIndex the index of the first struct
+	 * @param toIndex   the index after the last struct
+	 * @param visitor   the visitor
+	 *
+	 * @throws IndexOutOfBoundsException If the range is not within {@code [0, limit()]}
+	 */
+	public void forEach(int fromIndex, int toIndex, Visitor<? super T> visitor) {
+		if ( fromIndex < 0 || toIndex < fromIndex || limit < toIndex )
+			throw new IndexOutOfBoundsException();
+
+		T flyweight = newInstance(address);
+
+		int sizeof = sizeof();
+		for ( int i = fromIndex; i < toIndex; i++ ) {
+			flyweight.setAddress(address + (long)i * sizeof, container);
+			visitor.visit(i, flyweight);
+		}
+	}
+
+	/**
+	 * Calls the specified visitor for each struct between this buffer's current position and its limit, in parallel. The buffer's position is not modified.
+	 *
+	 * <p>The structs are split into contiguous index ranges of nearly equal size. Each range is processed with its own flyweight, by a task submitted to the
+	 * specified executor. The last range is processed by the calling thread. The visitor must be thread-safe and the order of visits between ranges is
+	 * unspecified.</p>
+	 *
+	 * <p>This method returns after all ranges have been processed, even if the calling thread is interrupted, so that the buffer memory may be safely freed
+	 * afterwards. If a visit throws an exception, the rest of its range is skipped, the other ranges are still processed and the first exception is
+	 * rethrown.</p>
+	 *
+	 * @param visitor  the visitor
+	 * @param executor the executor that processes all ranges but the last. Ranges rejected by the executor are processed by the calling thread.
+	 * @param ranges   the number of ranges, usually the number of available processors. Limited to the number of structs.
+	 */
+	public void forEach(final Visitor<? super T> visitor, Executor executor, int ranges) {
+		if ( ranges <= 0 )
+			throw new IllegalArgumentException();
+
+		final int from = position;
+		int count = limit - from;
+
+		ranges = Math.min(ranges, count);
+		if ( ranges <= 1 ) {
+			forEach(visitor);
+			return;
+		}
+
+		final CountDownLatch done = new CountDownLatch(ranges - 1);
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+		for ( int r = 0; r < ranges - 1; r++ ) {
+			final int fromIndex = from + (int)((long)count * r / ranges);
+			final int toIndex = from + (int)((long)count * (r + 1) / ranges);
+
+			Runnable task = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						forEach(fromIndex, toIndex, visitor);
+					} catch (Throwable t) {
+						error.compareAndSet(null, t);
+					} finally {
+						done.countDown();
+					}
+				}
+			};
+
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				task.run();
+			}
+		}
+
+		try {
+			forEach(from + (int)((long)count * (ranges - 1) / ranges), limit, visitor);
+		} catch (Throwable t) {
+			error.compareAndSet(null, t);
+		}
+
+		boolean interrupted = false;
+		while ( true ) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if ( interrupted )
+			Thread.currentThread().interrupt();
+
+		Throwable t = error.get();
+		if ( t instanceof RuntimeException )
+			throw (RuntimeException)t;
+		if ( t instanceof Error )
+			throw (Error)t;
+		if ( t != null )
+			throw new RuntimeException(t);
+	}
+
 	// -- Bulk get operations --
 
 	/**
@@ -0,0 +1,409 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+import static java.lang.Character.*;
+import static org.lwjgl.system.MemoryTextUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Encodes text incrementally to native memory, in a single pass.
+ *
+ * <p>{@link MemoryUtil#memUTF8(CharSequence) memUTF8} and {@link MemoryStack#UTF8(CharSequence) MemoryStack.UTF8} compute the encoded length of the
+ * text before encoding it, which reads the text twice, and require the entire result in a single buffer. This class reads the text once and writes it to
+ * one of the following targets:</p>
+ *
+ * <ul>
+ * <li>Growable memory, allocated with the {@link MemoryUtil} explicit memory management API. The memory is reallocated as needed and freed with
+ * {@link #close}. The encoded text is available with {@link #address}, {@link #size} and {@link #getBuffer}.</li>
+ * <li>A ring of chunks, provided by the caller. When a chunk is full, it is passed to a {@link ChunkHandler} and encoding continues in the next chunk of the
+ * ring. A chunk never ends in the middle of an encoded character, or between the two halves of a surrogate pair.</li>
+ * </ul>
+ *
+ * <p>Text can be appended in any number of calls, even if a surrogate pair is split between them. A high surrogate at the end of an append is held back
+ * until the next append, so {@link #finish} or {@link #nullTerminate} must be called after the last append. Unpaired surrogates are encoded as
+ * {@code '?'} in UTF-8 and written as is in UTF-16. Instances are not thread-safe.</p>
+ */
+public final class TextEncoder implements Closeable {
+
+	/** Receives full chunks from a {@link TextEncoder}. */
+	public interface ChunkHandler {
+
+		/**
+		 * Called when a chunk is full, or when {@link #flush} is called. The chunk will be reused after every other chunk in the ring has been used, so its
+		 * contents must be consumed before then.
+		 *
+		 * @param index   the index of the chunk in the ring
+		 * @param address the chunk address
+		 * @param bytes   the number of encoded bytes in the chunk
+		 */
+		void handle(int index, long address, int bytes);
+
+	}
+
+	/** The minimum chunk size. */
+	public static final int MIN_CHUNK_SIZE = 16;
+
+	private final boolean utf8;
+
+	/** The maximum number of bytes per UTF-16 code unit. */
+	private final int maxBytesPerChar;
+	/** The bytes a pending surrogate may add to the first character of an append. */
+	private final int pendingBytes;
+
+	private final ByteBuffer[]  ring;
+	private final ChunkHandler handler;
+
+	private int ringIndex;
+
+	/** The current target memory. */
+	private long address;
+	private int  capacity;
+
+	/** The number of bytes in the current target memory. */
+	private int size;
+
+	/** The number of bytes in previous chunks. */
+	private long flushed;
+
+	/** A high surrogate at the end of the previous append, or 0. */
+	private char pendingSurrogate;
+
+	private TextEncoder(boolean utf8, ByteBuffer[] ring, ChunkHandler handler) {
+		this.utf8 = utf8;
+		this.maxBytesPerChar = utf8 ? 3 : 2;
+		this.pendingBytes = utf8 ? 1 : 2;
+
+		this.ring = ring;
+		this.handler = handler;
+	}
+
+	/**
+	 * Creates a new UTF-8 encoder that writes to growable memory.
+	 *
+	 * @param initialCapacity the initial memory size, in bytes
+	 */
+	public static TextEncoder createUTF8(int initialCapacity) {
+		return createGrowable(true, initialCapacity);
+	}
+
+	/**
+	 * Creates a new UTF-16 encoder that writes to growable memory.
+	 *
+	 * @param initialCapacity the initial memory size, in bytes
+	 */
+	public static TextEncoder createUTF16(int initialCapacity) {
+		return createGrowable(false, initialCapacity);
+	}
+
+	/**
+	 * Creates a new UTF-8 encoder that writes to a ring of chunks.
+	 *
+	 * @param ring    the chunks. Each chunk is used from its current position to its limit, which must be at least {@link #MIN_CHUNK_SIZE} bytes.
+	 * @param handler the handler of full chunks
+	 */
+	public static TextEncoder createUTF8(ByteBuffer[] ring, ChunkHandler handler) {
+		return createRing(true, ring, handler);
+	}
+
+	/**
+	 * Creates a new UTF-16 encoder that writes to a ring of chunks.
+	 *
+	 * @param ring    the chunks. Each chunk is used from its current position to its limit, which must be at least {@link #MIN_CHUNK_SIZE} bytes.
+	 * @param handler the handler of full chunks
+	 */
+	public static TextEncoder createUTF16(ByteBuffer[] ring, ChunkHandler handler) {
+		return createRing(false, ring, handler);
+	}
+
+	private static TextEncoder createGrowable(boolean utf8, int initialCapacity) {
+		TextEncoder encoder = new TextEncoder(utf8, null, null);
+		encoder.grow(Math.max(initialCapacity, MIN_CHUNK_SIZE));
+		return encoder;
+	}
+
+	private static TextEncoder createRing(boolean utf8, ByteBuffer[] ring, ChunkHandler handler) {
+		if ( ring.length == 0 || handler == null )
+			throw new IllegalArgumentException();
+
+		for ( ByteBuffer chunk : ring ) {
+			if ( chunk.remaining() < MIN_CHUNK_SIZE )
+				throw new IllegalArgumentException("The chunk size must be at least " + MIN_CHUNK_SIZE + " bytes.");
+		}
+
+		TextEncoder encoder = new TextEncoder(utf8, ring.clone(), handler);
+		encoder.setChunk(0);
+		return encoder;
+	}
+
+	/**
+	 * Returns the address of the encoded text. In ring mode, returns the address of the current chunk.
+	 *
+	 * <p>In growable mode, the address changes when the memory is reallocated.</p>
+	 */
+	public long address() {
+		return address;
+	}
+
+	/** Returns the number of encoded bytes at {@link #address}. A pending high surrogate is not included, see {@link #finish}. */
+	public int size() {
+		return size;
+	}
+
+	/** Returns the total number of encoded bytes, including bytes passed to the {@link ChunkHandler}. */
+	public long getEncodedLength() {
+		return flushed + size;
+	}
+
+	/** Returns a new {@link ByteBuffer} view of the encoded bytes at {@link #address}. */
+	public ByteBuffer getBuffer() {
+		return memByteBuffer(address, size);
+	}
+
+	/** Appends the specified text. */
+	public TextEncoder append(CharSequence text) {
+		return append(text, 0, text.length());
+	}
+
+	/**
+	 * Appends a range of the specified text.
+	 *
+	 * @param text  the text
+	 * @param start the index of the first character to append
+	 * @param end   the index after the last character to append
+	 */
+	public TextEncoder append(CharSequence text, int start, int end) {
+		checkOpen();
+
+		int i = start;
+		while ( i < end ) {
+			int chars = Math.min(end - i, (capacity - size - pendingBytes) / maxBytesPerChar);
+			if ( chars <= 0 ) {
+				makeRoom(maxBytesPerChar + pendingBytes);
+				continue;
+			}
+
+			long p = address + size;
+			size += (int)((utf8 ? putUTF8(text, i, i + chars, p) : putUTF16(text, i, i + chars, p)) - p);
+			i += chars;
+		}
+
+		return this;
+	}
+
+	/** Appends a null-terminator, 1 byte in UTF-8 or 2 bytes in UTF-16. Completes any pending surrogate. */
+	public TextEncoder nullTerminate() {
+		checkOpen();
+
+		if ( capacity - size < pendingBytes * 2 )
+			makeRoom(pendingBytes * 2);
+
+		long p = putPendingSurrogate(address + size);
+		if ( utf8 )
+			memPutByte(p++, (byte)0);
+		else {
+			memPutShort(p, (short)0);
+			p += 2;
+		}
+
+		size = (int)(p - address);
+		return this;
+	}
+
+	/**
+	 * Completes the encoded text, without a null-terminator. Must be called after the last append, unless {@link #nullTerminate} is called.
+	 *
+	 * <p>A pending high surrogate, held back by the last append, is encoded as an unpaired surrogate. In ring mode, the current chunk is then passed to the
+	 * {@link ChunkHandler}, like {@link #flush} does.</p>
+	 */
+	public TextEncoder finish() {
+		checkOpen();
+
+		if ( pendingSurrogate != 0 ) {
+			if ( capacity - size < pendingBytes )
+				makeRoom(pendingBytes);
+
+			size = (int)(putPendingSurrogate(address + size) - address);
+		}
+
+		return flush();
+	}
+
+	/** Writes the pending surrogate at {@code p}, if any, as {@code '?'} in UTF-8 or as is in UTF-16. Returns the address after the last byte written. */
+	private long putPendingSurrogate(long p) {
+		if ( pendingSurrogate != 0 ) {
+			if ( utf8 )
+				memPutByte(p++, (byte)'?');
+			else {
+				memPutShort(p, (short)pendingSurrogate);
+				p += 2;
+			}
+			pendingSurrogate = 0;
+		}
+		return p;
+	}
+
+	/** In ring mode, passes the current chunk to the {@link ChunkHandler}, if it is not empty, and continues in the next chunk. Does nothing in growable mode. */
+	public TextEncoder flush() {
+		checkOpen();
+
+		if ( ring != null && size != 0 )
+			nextChunk();
+
+		return this;
+	}
+
+	/** Discards the encoded text. In ring mode, continues in the current chunk. */
+	public void reset() {
+		checkOpen();
+
+		size = 0;
+		flushed = 0L;
+		pendingSurrogate = 0;
+	}
+
+	private void checkOpen() {
+		if ( address == NULL )
+			throw new IllegalStateException("The encoder has been closed.");
+	}
+
+	/** Frees the memory of a growable encoder. Does nothing in ring mode, or if the encoder has already been closed. */
+	@Override
+	public void close() {
+		if ( ring == null && address != NULL )
+			nmemFree(address, capacity);
+
+		address = NULL;
+	}
+
+	// -----------------------------------------------------
+
+	private void makeRoom(int bytes) {
+		if ( ring == null )
+			grow(Math.max(size + bytes, capacity + (capacity >> 1)));
+		else
+			nextChunk();
+	}
+
+	private void grow(int capacity) {
+		if ( capacity < 0 )
+			throw new OutOfMemoryError("The encoded text is too large.");
+
+		long address = nmemRealloc(this.address, capacity);
+		if ( address == NULL )
+			throw new OutOfMemoryError("Failed to allocate " + capacity + " bytes.");
+
+		this.address = address;
+		this.capacity = capacity;
+	}
+
+	private void nextChunk() {
+		handler.handle(ringIndex, address, size);
+		flushed += size;
+
+		setChunk((ringIndex + 1) % ring.length);
+	}
+
+	private void setChunk(int index) {
+		ByteBuffer chunk = ring[index];
+
+		this.ringIndex = index;
+		this.address = memAddress(chunk);
+		this.capacity = chunk.remaining();
+		this.size = 0;
+	}
+
+	// -----------------------------------------------------
+
+	/** Encodes {@code text[i, end)} as UTF-8 at {@code p}, which has space for at least {@code (end - i) * 3 + 1} bytes. Returns the address after the last byte written. */
+	private long putUTF8(CharSequence text, int i, int end, long p) {
+		if ( pendingSurrogate != 0 ) {
+			char lo = text.charAt(i);
+			if ( isLowSurrogate(lo) ) {
+				p = putUTF8(toCodePoint(pendingSurrogate, lo), p);
+				i++;
+			} else
+				memPutByte(p++, (byte)'?');
+
+			pendingSurrogate = 0;
+		}
+
+		// The index before which the ASCII fast path is not attempted again, after it failed
+		int scalarEnd = i;
+		while ( i < end ) {
+			char c = text.charAt(i);
+			if ( c < 0x80 ) {
+				// ASCII fast path, 8 characters at a time
+				if ( scalarEnd <= i && i <= end - 8 ) {
+					long word = packASCII(text, i);
+					if ( word != -1L ) {
+						memPutLong(p, word);
+						i += 8;
+						p += 8;
+						continue;
+					}
+					scalarEnd = i + 8;
+				}
+
+				memPutByte(p++, (byte)c);
+			} else if ( c < 0x800 ) {
+				memPutByte(p++, (byte)(0xC0 | c >> 6));
+				memPutByte(p++, (byte)(0x80 | c & 0x3F));
+			} else if ( !isSurrogate(c) ) {
+				memPutByte(p++, (byte)(0xE0 | c >> 12));
+				memPutByte(p++, (byte)(0x80 | c >> 6 & 0x3F));
+				memPutByte(p++, (byte)(0x80 | c & 0x3F));
+			} else if ( isHighSurrogate(c) ) {
+				if ( i + 1 == end ) {
+					// Completed by the next append
+					pendingSurrogate = c;
+				} else if ( isLowSurrogate(text.charAt(i + 1)) ) {
+					p = putUTF8(toCodePoint(c, text.charAt(++i)), p);
+				} else
+					memPutByte(p++, (byte)'?');
+			} else
+				memPutByte(p++, (byte)'?');
+
+			i++;
+		}
+
+		return p;
+	}
+
+	private static long putUTF8(int cp, long p) {
+		memPutByte(p++, (byte)(0xF0 | cp >> 18));
+		memPutByte(p++, (byte)(0x80 | cp >> 12 & 0x3F));
+		memPutByte(p++, (byte)(0x80 | cp >> 6 & 0x3F));
+		memPutByte(p++, (byte)(0x80 | cp & 0x3F));
+		return p;
+	}
+
+	/** Encodes {@code text[i, end)} as UTF-16 at {@code p}, which has space for at least {@code (end - i) * 2 + 2} bytes. Returns the address after the last byte written. */
+	private long putUTF16(CharSequence text, int i, int end, long p) {
+		if ( pendingSurrogate != 0 ) {
+			memPutShort(p, (short)pendingSurrogate);
+			p += 2;
+
+			pendingSurrogate = 0;
+		}
+
+		// A high surrogate at the end is held back, so that it is written to the same chunk as its low surrogate
+		if ( isHighSurrogate(text.charAt(end - 1)) )
+			pendingSurrogate = text.charAt(--end);
+
+		for ( ; i < end; i++, p += 2 )
+			memPutShort(p, (short)text.charAt(i));
+
+		return p;
+	}
+
+	private static boolean isSurrogate(char c) {
+		return MIN_SURROGATE <= c && c <= MAX_SURROGATE;
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system.jemalloc;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.system.MemoryStack;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.jemalloc.JEmalloc.*;
+
+/**
+ * Manages jemalloc arenas and thread caches.
+ *
+ * <p>By default, jemalloc assigns threads to a fixed number of arenas in round-robin fashion. Threads that allocate heavily, such as render, audio or I/O
+ * threads, may end up sharing an arena and contend on its locks whenever their thread cache (tcache) is filled or flushed, or when they allocate regions
+ * too large to be cached. {@link #bindDedicatedArena} gives the current thread an arena of its own. All jemalloc allocations made by that thread, including
+ * the allocations made with the {@link org.lwjgl.system.MemoryUtil MemoryUtil} explicit memory management API, will then use the dedicated arena.</p>
+ *
+ * <p>Arenas cannot be destroyed. The arena of a thread that terminated without calling {@link #releaseDedicatedArena} is reused by the next thread that
+ * requests a dedicated arena, as soon as the termination is detected.</p>
+ *
+ * <p>Memory allocated with a dedicated arena may be freed by any thread.</p>
+ */
+public final class JEmallocArenas {
+
+	private static final ThreadLocal<ArenaRef> DEDICATED = new ThreadLocal<ArenaRef>();
+
+	private JEmallocArenas() {
+	}
+
+	private static void check(int error, String name) {
+		if ( error != 0 )
+			throw new IllegalStateException("mallctl(\"" + name + "\") failed with error code: " + error);
+	}
+
+	private static int mallctlGetInt(String name) {
+		MemoryStack stack = stackPush();
+		try {
+			IntBuffer value = stack.mallocInt(1);
+			PointerBuffer len = stack.pointers(4);
+
+			check(nje_mallctl(memAddress(stack.ASCII(name)), memAddress(value), memAddress(len), NULL, 0L), name);
+			return value.get(0);
+		} finally {
+			stack.pop();
+		}
+	}
+
+	private static void mallctlSetInt(String name, int value) {
+		MemoryStack stack = stackPush();
+		try {
+			check(nje_mallctl(memAddress(stack.ASCII(name)), NULL, NULL, memAddress(stack.ints(value)), 4L), name);
+		} finally {
+			stack.pop();
+		}
+	}
+
+	/** Returns the current number of arenas. */
+	public static int getArenaCount() {
+		return mallctlGetInt("arenas.narenas");
+	}
+
+	/**
+	 * Creates a new arena.
+	 *
+	 * @return the index of the new arena, to be used with {@link #setThreadArena} or {@link JEmacros#MALLOCX_ARENA}
+	 */
+	public static int create() {
+		return mallctlGetInt("arenas.extend");
+	}
+
+	/** Returns the index of the arena the current thread is bound to. */
+	public static int getThreadArena() {
+		return mallctlGetInt("thread.arena");
+	}
+
+	/**
+	 * Binds the current thread to the specified arena.
+	 *
+	 * @param arena the arena index
+	 */
+	public static void setThreadArena(int arena) {
+		mallctlSetInt("thread.arena", arena);
+	}
+
+	/**
+	 * Flushes the thread cache of the current thread, returning the cached regions to their arenas.
+	 *
+	 * <p>Useful for threads that are about to go idle for a long time, so that the cached memory can be reused by other threads. Does nothing if jemalloc
+	 * has been built without tcache support, or if the tcache is disabled.</p>
+	 */
+	public static void flushThreadCache() {
+		MemoryStack stack = stackPush();
+		try {
+			nje_mallctl(memAddress(stack.ASCII("thread.tcache.flush")), NULL, NULL, NULL, 0L);
+		} finally {
+			stack.pop();
+		}
+	}
+
+	/**
+	 * Binds the current thread to a dedicated arena. Does nothing if the current thread already has a dedicated arena.
+	 *
+	 * <p>The thread cache is flushed first, so that no regions of the previous arena are reused by the current thread.</p>
+	 *
+	 * @return the index of the dedicated arena
+	 */
+	public static int bindDedicatedArena() {
+		ArenaRef ref = DEDICATED.get();
+		if ( ref != null )
+			return ref.arena;
+
+		int previous = getThreadArena();
+
+		int arena = ArenaRef.acquire();
+		if ( arena == -1 )
+			arena = create();
+
+		flushThreadCache();
+		setThreadArena(arena);
+
+		DEDICATED.set(ArenaRef.register(Thread.currentThread(), arena, previous));
+		return arena;
+	}
+
+	/**
+	 * Releases the dedicated arena of the current thread. Does nothing if the current thread does not have a dedicated arena.
+	 *
+	 * <p>The thread cache is flushed and the thread is bound to the arena it was using before {@link #bindDedicatedArena} was called. The dedicated arena
+	 * becomes available to other threads. This method should be called before a thread with a dedicated arena terminates.</p>
+	 */
+	public static void releaseDedicatedArena() {
+		ArenaRef ref = DEDICATED.get();
+		if ( ref == null )
+			return;
+
+		DEDICATED.remove();
+
+		flushThreadCache();
+		setThreadArena(ref.previous);
+
+		ref.release();
+	}
+
+	/**
+	 * Returns a {@link Runnable} that runs the specified target with a dedicated arena.
+	 *
+	 * <p>The arena is bound before the target starts and released after it completes, normally or abruptly. Useful as the target of a {@link Thread}.</p>
+	 *
+	 * @param target the {@code Runnable} to wrap
+	 */
+	public static Runnable withDedicatedArena(final Runnable target) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				bindDedicatedArena();
+				try {
+					target.run();
+				} finally {
+					releaseDedicatedArena();
+				}
+			}
+		};
+	}
+
+	/** Tracks the threads with a dedicated arena, to reuse the arenas of terminated threads. */
+	private static final class ArenaRef extends WeakReference<Thread> {
+
+		private static final ReferenceQueue<Thread> QUEUE = new ReferenceQueue<Thread>();
+
+		/** The dedicated arenas in use. Guarded by itself. */
+		private static final List<ArenaRef> BOUND = new ArrayList<ArenaRef>();
+
+		/** The dedicated arenas available for reuse. Guarded by {@link #BOUND}. */
+		private static final List<Integer> FREE = new ArrayList<Integer>();
+
+		final int arena;
+		final int previous;
+
+		private ArenaRef(Thread thread, int arena, int previous) {
+			super(thread, QUEUE);
+			this.arena = arena;
+			this.previous = previous;
+		}
+
+		static ArenaRef register(Thread thread, int arena, int previous) {
+			ArenaRef ref = new ArenaRef(thread, arena, previous);
+			synchronized ( BOUND ) {
+				BOUND.add(ref);
+			}
+			return ref;
+		}
+
+		/** Returns an arena released by another thread, or -1 if none is available. */
+		static int acquire() {
+			synchronized ( BOUND ) {
+				Object ref;
+				while ( (ref = QUEUE.poll()) != null )
+					((ArenaRef)ref).release();
+
+				if ( FREE.isEmpty() ) {
+					// Look for terminated threads that have not been garbage collected yet
+					for ( int i = BOUND.size() - 1; 0 <= i; i-- ) {
+						Thread thread = BOUND.get(i).get();
+						if ( thread == null || !thread.isAlive() )
+							BOUND.get(i).release();
+					}
+				}
+
+				return FREE.isEmpty() ? -1 : FREE.remove(FREE.size() - 1);
+			}
+		}
+
+		void release() {
+			synchronized ( BOUND ) {
+				if ( BOUND.remove(this) )
+					FREE.add(arena);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system.jemalloc;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.Pointer.*;
+import static org.lwjgl.system.jemalloc.JEmalloc.*;
+
+/**
+ * A typed snapshot of the jemalloc statistics.
+ *
+ * <p>The mallctl names are translated to MIBs once, when the instance is created. {@link #refresh} advances the jemalloc {@code epoch} and reads all
+ * counters with {@code mallctlbymib}, into memory owned by the instance. It does not allocate, unless the number of arenas has changed, so it is cheap
+ * enough to be called periodically, e.g. once per second.</p>
+ *
+ * <p>jemalloc must have been built with statistics support ({@code --enable-stats}). Instances are not thread-safe.</p>
+ *
+ * <pre><code>JEmallocStats stats = new JEmallocStats();
+ *
+ * // then periodically
+ * stats.refresh();
+ * System.out.println(stats.getAllocated() + " bytes allocated, " + stats.getResident() + " bytes resident");</code></pre>
+ */
+public final class JEmallocStats {
+
+	private static final String[] NAMES = {
+		"epoch",
+		"stats.allocated",
+		"stats.active",
+		"stats.metadata",
+		"stats.resident",
+		"stats.mapped",
+		"arenas.narenas",
+		"arenas.page",
+		// per-arena, the arena index is replaced at ARENA_INDEX
+		"stats.arenas.0.nthreads",
+		"stats.arenas.0.pactive",
+		"stats.arenas.0.pdirty",
+		"stats.arenas.0.mapped",
+		"stats.arenas.0.small.allocated",
+		"stats.arenas.0.large.allocated",
+		"stats.arenas.0.huge.allocated"
+	};
+
+	private static final int
+		EPOCH           = 0,
+		ALLOCATED       = 1,
+		ACTIVE          = 2,
+		METADATA        = 3,
+		RESIDENT        = 4,
+		MAPPED          = 5,
+		NARENAS         = 6,
+		PAGE            = 7,
+		ARENA_NTHREADS  = 8,
+		ARENA_PACTIVE   = 9,
+		ARENA_PDIRTY    = 10,
+		ARENA_MAPPED    = 11,
+		ARENA_SMALL     = 12,
+		ARENA_LARGE     = 13,
+		ARENA_HUGE      = 14,
+		ARENA_COUNTERS  = ARENA_HUGE - ARENA_NTHREADS + 1;
+
+	/** The maximum number of MIB components, enough for the longest name. */
+	private static final int MIB_LENGTH = 5;
+
+	/** The MIB component that holds the arena index. */
+	private static final int ARENA_INDEX = 2;
+
+	/** MIB components, {@link #MIB_LENGTH} size_t values per name. */
+	private final ByteBuffer mibs = BufferUtils.createByteBuffer(NAMES.length * MIB_LENGTH * POINTER_SIZE);
+	private final int[]      mibLengths = new int[NAMES.length];
+
+	/** Scratch memory for mallctlbymib: the value, followed by its length. */
+	private final ByteBuffer scratch = BufferUtils.createByteBuffer(16);
+
+	private final long mibsAddress;
+	private final long scratchAddress;
+
+	private long epoch;
+
+	private long allocated;
+	private long active;
+	private long metadata;
+	private long resident;
+	private long mapped;
+
+	private long pageSize;
+
+	private int    arenaCount;
+	private long[] arenas = new long[0];
+
+	/**
+	 * Creates a new {@code JEmallocStats} instance and takes the first snapshot.
+	 *
+	 * @throws IllegalStateException if jemalloc has been built without statistics support
+	 */
+	public JEmallocStats() {
+		mibsAddress = memAddress(mibs);
+		scratchAddress = memAddress(scratch);
+
+		MemoryStack stack = stackPush();
+		try {
+			long miblenp = stack.nmalloc(POINTER_SIZE, POINTER_SIZE);
+			for ( int i = 0; i < NAMES.length; i++ ) {
+				memPutAddress(miblenp, MIB_LENGTH);
+
+				int error = nje_mallctlnametomib(memAddress(stack.ASCII(NAMES[i])), mib(i), miblenp);
+				if ( error != 0 )
+					throw new IllegalStateException("mallctlnametomib(\"" + NAMES[i] + "\") failed with error code: " + error);
+
+				mibLengths[i] = (int)memGetAddress(miblenp);
+			}
+		} finally {
+			stack.pop();
+		}
+
+		pageSize = read(PAGE, POINTER_SIZE);
+		refresh();
+	}
+
+	private long mib(int name) {
+		return mibsAddress + name * MIB_LENGTH * POINTER_SIZE;
+	}
+
+	/** Reads an unsigned value of the specified size. Returns -1 if the value is not available. */
+	private long read(int name, int size) {
+		memPutLong(scratchAddress, 0L);
+		memPutAddress(scratchAddress + 8, size);
+
+		if ( nje_mallctlbymib(mib(name), mibLengths[name], scratchAddress, scratchAddress + 8, NULL, 0L) != 0 )
+			return -1L;
+
+		return size == 4 ? memGetInt(scratchAddress) & 0xFFFFFFFFL : memGetAddress(scratchAddress);
+	}
+
+	/**
+	 * Refreshes the jemalloc statistics and updates this snapshot.
+	 *
+	 * @return this instance
+	 */
+	public JEmallocStats refresh() {
+		// Writing to epoch refreshes the statistics, the new epoch is returned
+		memPutLong(scratchAddress, 1L);
+		memPutAddress(scratchAddress + 8, 8L);
+		nje_mallctlbymib(mib(EPOCH), mibLengths[EPOCH], scratchAddress, scratchAddress + 8, scratchAddress, 8L);
+		epoch = memGetLong(scratchAddress);
+
+		allocated = read(ALLOCATED, POINTER_SIZE);
+		active = read(ACTIVE, POINTER_SIZE);
+		metadata = read(METADATA, POINTER_SIZE);
+		resident = read(RESIDENT, POINTER_SIZE);
+		mapped = read(MAPPED, POINTER_SIZE);
+
+		arenaCount = (int)read(NARENAS, 4);
+		if ( arenas.length < arenaCount * ARENA_COUNTERS )
+			arenas = new long[arenaCount * ARENA_COUNTERS];
+
+		for ( int i = 0; i < arenaCount; i++ ) {
+			for ( int counter = ARENA_NTHREADS; counter <= ARENA_HUGE; counter++ )
+				memPutAddress(mib(counter) + ARENA_INDEX * POINTER_SIZE, i);
+
+			// Uninitialized arenas are not available and report -1
+			int offset = i * ARENA_COUNTERS - ARENA_NTHREADS;
+			arenas[offset + ARENA_NTHREADS] = read(ARENA_NTHREADS, 4);
+			arenas[offset + ARENA_PACTIVE] = read(ARENA_PACTIVE, POINTER_SIZE);
+			arenas[offset + ARENA_PDIRTY] = read(ARENA_PDIRTY, POINTER_SIZE);
+			arenas[offset + ARENA_MAPPED] = read(ARENA_MAPPED, POINTER_SIZE);
+			arenas[offset + ARENA_SMALL] = read(ARENA_SMALL, POINTER_SIZE);
+			arenas[offset + ARENA_LARGE] = read(ARENA_LARGE, POINTER_SIZE);
+			arenas[offset + ARENA_HUGE] = read(ARENA_HUGE, POINTER_SIZE);
+		}
+
+		return this;
+	}
+
+	/** Returns the jemalloc epoch of this snapshot. */
+	public long getEpoch() { return epoch; }
+
+	/** Returns the total number of bytes allocated by the application ({@code stats.allocated}). */
+	public long getAllocated() { return allocated; }
+
+	/** Returns the total number of bytes in active pages allocated by the application ({@code stats.active}). */
+	public long getActive() { return active; }
+
+	/** Returns the total number of bytes dedicated to metadata ({@code stats.metadata}). */
+	public long getMetadata() { return metadata; }
+
+	/** Returns the maximum number of bytes in physically resident data pages mapped by the allocator ({@code stats.resident}). */
+	public long getResident() { return resident; }
+
+	/** Returns the total number of bytes in active chunks mapped by the allocator ({@code stats.mapped}). */
+	public long getMapped() { return mapped; }
+
+	/** Returns the page size, in bytes. */
+	public long getPageSize() { return pageSize; }
+
+	/** Returns the number of arenas in this snapshot. */
+	public int getArenaCount() { return arenaCount; }
+
+	private long getArena(int arena, int counter) {
+		if ( arena < 0 || arenaCount <= arena )
+			throw new IndexOutOfBoundsException();
+
+		return arenas[arena * ARENA_COUNTERS + counter - ARENA_NTHREADS];
+	}
+
+	/** Returns true if the specified arena has been initialized, i.e. if its statistics are available. */
+	public boolean isArenaInitialized(int arena) { return getArena(arena, ARENA_NTHREADS) != -1L; }
+
+	/** Returns the number of threads currently assigned to the specified arena, or -1 if the arena has not been initialized. */
+	public long getArenaThreads(int arena) { return getArena(arena, ARENA_NTHREADS); }
+
+	/** Returns the number of bytes in active pages of the specified arena, or -1 if the arena has not been initialized. */
+	public long getArenaActive(int arena) {
+		long pages = getArena(arena, ARENA_PACTIVE);
+		return pages == -1L ? -1L : pages * pageSize;
+	}
+
+	/** Returns the number of bytes in dirty pages of the specified arena, i.e. unused pages that have not been purged, or -1 if the arena has not been initialized. */
+	public long getArenaDirty(int arena) {
+		long pages = getArena(arena, ARENA_PDIRTY);
+		return pages == -1L ? -1L : pages * pageSize;
+	}
+
+	/** Returns the number of bytes mapped by the specified arena, or -1 if the arena has not been initialized. */
+	public long getArenaMapped(int arena) { return getArena(arena, ARENA_MAPPED); }
+
+	/** Returns the number of bytes allocated from the specified arena, for all size classes, or -1 if the arena has not been initialized. */
+	public long getArenaAllocated(int arena) {
+		long small = getArena(arena, ARENA_SMALL);
+		return small == -1L ? -1L : small + getArena(arena, ARENA_LARGE) + getArena(arena, ARENA_HUGE);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+			"JEmallocStats[epoch=%d, allocated=%d, active=%d, metadata=%d, resident=%d, mapped=%d, arenas=%d]",
+			epoch, allocated, active, metadata, resident, mapped, arenaCount
+		);
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import org.lwjgl.system.Configuration;
+import org.lwjgl.system.MemoryUtil.MemoryAllocator;
+
+import java.util.Random;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Measures the throughput of small allocations with the {@link MemoryAllocator} selected by {@link Configuration#MEMORY_ALLOCATOR}.
+ *
+ * <p>The workload simulates a frame that allocates and frees thousands of 16 to 256 byte blocks. Usage:</p>
+ *
+ * <pre>AllocatorBenchmark [jemalloc|system|pooled] [threads]</pre>
+ *
+ * <p>The allocator can only be selected once per process, so each allocator must be measured in a separate run.</p>
+ */
+public final class AllocatorBenchmark {
+
+	private static final int BLOCKS = 4096;
+
+	private static final int WARMUP_FRAMES = 500;
+	private static final int FRAMES        = 2000;
+
+	private AllocatorBenchmark() {
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		if ( 0 < args.length )
+			Configuration.MEMORY_ALLOCATOR.set(args[0]);
+
+		int threadCount = 1 < args.length ? Integer.parseInt(args[1]) : 1;
+
+		final MemoryAllocator allocator = getAllocator();
+		System.out.format("Allocator: %s, threads: %d\n", allocator.getClass().getSimpleName(), threadCount);
+
+		final long[] results = new long[threadCount];
+
+		Thread[] threads = new Thread[threadCount];
+		for ( int i = 0; i < threadCount; i++ ) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					results[index] = measure(allocator, index);
+				}
+			};
+		}
+
+		for ( Thread thread : threads )
+			thread.start();
+		for ( Thread thread : threads )
+			thread.join();
+
+		long total = 0L;
+		for ( long t : results )
+			total += t;
+
+		System.out.format("%.2f ns per malloc/free pair\n", (double)total / threadCount / ((long)FRAMES * BLOCKS));
+	}
+
+	private static long measure(MemoryAllocator allocator, int seed) {
+		Random rand = new Random(seed);
+
+		int[] sizes = new int[BLOCKS];
+		for ( int i = 0; i < BLOCKS; i++ )
+			sizes[i] = 16 + rand.nextInt(241);
+
+		long[] blocks = new long[BLOCKS];
+
+		for ( int i = 0; i < WARMUP_FRAMES; i++ )
+			frame(allocator, sizes, blocks);
+
+		long t = System.nanoTime();
+		for ( int i = 0; i < FRAMES; i++ )
+			frame(allocator, sizes, blocks);
+		return System.nanoTime() - t;
+	}
+
+	private static void frame(MemoryAllocator allocator, int[] sizes, long[] blocks) {
+		for ( int i = 0; i < blocks.length; i++ ) {
+			blocks[i] = allocator.malloc(sizes[i]);
+			memPutByte(blocks[i], (byte)i);
+		}
+
+		// free in a different order than allocated
+		for ( int i = 1; i < blocks.length; i += 2 )
+			allocator.free(blocks[i]);
+		for ( int i = 0; i < blocks.length; i += 2 )
+			allocator.free(blocks[i]);
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import org.lwjgl.system.jemalloc.JEmallocArenas;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.lwjgl.system.jemalloc.JEmalloc.*;
+
+/**
+ * Measures jemalloc arena contention, with and without {@link JEmallocArenas#bindDedicatedArena dedicated arenas}.
+ *
+ * <p>Each thread allocates and frees blocks of 16 bytes to 64KB. Blocks larger than the maximum tcache size are always allocated from an arena, so with
+ * enough threads some of them will share an arena and contend on its locks. Usage:</p>
+ *
+ * <pre>ArenaContentionBenchmark [shared|dedicated] [threads]</pre>
+ *
+ * <p>The default is 16 threads. Both modes are measured if the mode is not specified.</p>
+ */
+public final class ArenaContentionBenchmark {
+
+	private static final int BLOCKS = 1024;
+
+	private static final int WARMUP_ROUNDS = 200;
+	private static final int ROUNDS        = 1000;
+
+	private ArenaContentionBenchmark() {
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int threadCount = 1 < args.length ? Integer.parseInt(args[1]) : 16;
+
+		if ( args.length == 0 || "shared".equals(args[0]) )
+			System.out.format("shared arenas: %.2f ns per malloc/free pair\n", benchmark(threadCount, false));
+		if ( args.length == 0 || "dedicated".equals(args[0]) )
+			System.out.format("dedicated arenas: %.2f ns per malloc/free pair\n", benchmark(threadCount, true));
+	}
+
+	private static double benchmark(int threadCount, final boolean dedicated) throws InterruptedException {
+		final long[] results = new long[threadCount];
+
+		final CountDownLatch ready = new CountDownLatch(threadCount);
+		final CountDownLatch start = new CountDownLatch(1);
+
+		Thread[] threads = new Thread[threadCount];
+		for ( int i = 0; i < threadCount; i++ ) {
+			final int index = i;
+
+			Runnable target = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						results[index] = measure(index, ready, start);
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			};
+
+			threads[i] = new Thread(dedicated ? JEmallocArenas.withDedicatedArena(target) : target);
+		}
+
+		for ( Thread thread : threads )
+			thread.start();
+
+		ready.await();
+		start.countDown();
+
+		for ( Thread thread : threads )
+			thread.join();
+
+		long total = 0L;
+		for ( long t : results )
+			total += t;
+
+		return (double)total / threadCount / ((long)ROUNDS * BLOCKS);
+	}
+
+	private static long measure(int seed, CountDownLatch ready, CountDownLatch start) throws InterruptedException {
+		Random rand = new Random(seed);
+
+		int[] sizes = new int[BLOCKS];
+		for ( int i = 0; i < BLOCKS; i++ )
+			sizes[i] = 16 << rand.nextInt(13);
+
+		long[] blocks = new long[BLOCKS];
+
+		for ( int i = 0; i < WARMUP_ROUNDS; i++ )
+			round(sizes, blocks);
+
+		ready.countDown();
+		start.await();
+
+		long t = System.nanoTime();
+		for ( int i = 0; i < ROUNDS; i++ )
+			round(sizes, blocks);
+		return System.nanoTime() - t;
+	}
+
+	private static void round(int[] sizes, long[] blocks) {
+		for ( int i = 0; i < blocks.length; i++ ) {
+			blocks[i] = nje_malloc(sizes[i]);
+			memPutByte(blocks[i], (byte)i);
+		}
+
+		for ( int i = blocks.length - 1; 0 <= i; i-- )
+			nje_free(blocks[i]);
+	}
+
+}
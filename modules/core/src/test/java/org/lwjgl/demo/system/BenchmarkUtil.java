@@ -0,0 +1,47 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/** Utilities shared by the benchmarks that report Java heap allocations. */
+final class BenchmarkUtil {
+
+	private BenchmarkUtil() {
+	}
+
+	/**
+	 * Returns the number of bytes allocated on the Java heap by the current thread, or -1 if the JVM does not support
+	 * {@code com.sun.management.ThreadMXBean}.
+	 */
+	static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ( bean instanceof com.sun.management.ThreadMXBean )
+			return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+
+		return -1L;
+	}
+
+	/**
+	 * Prints the time and the Java heap allocations per operation, since the specified start time and allocated bytes.
+	 *
+	 * @param name  the benchmark name
+	 * @param unit  the name of an operation
+	 * @param count the number of operations
+	 * @param t     the value of {@link System#nanoTime} at the start of the benchmark
+	 * @param bytes the value of {@link #getAllocatedBytes} at the start of the benchmark
+	 */
+	static void report(String name, String unit, long count, long t, long bytes) {
+		long time = System.nanoTime() - t;
+		long allocated = getAllocatedBytes() - bytes;
+
+		if ( bytes == -1L )
+			System.out.format("%s: %.2f ns per %s\n", name, (double)time / count, unit);
+		else
+			System.out.format("%s: %.2f ns per %s, %.4f bytes allocated per %s\n", name, (double)time / count, unit, (double)allocated / count, unit);
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.demo.system.BenchmarkUtil.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Compares creating a new buffer view per iteration with {@link org.lwjgl.system.MemoryUtil#memFloatBuffer memFloatBuffer}, to rebinding a single instance
+ * with {@link org.lwjgl.system.MemoryUtil#memSetupBuffer(FloatBuffer, long, int) memSetupBuffer}.
+ *
+ * <p>The time per view and the number of bytes allocated on the Java heap per view are reported. The allocation rate requires a JVM that supports
+ * {@code com.sun.management.ThreadMXBean}. Run with {@code -XX:-DoEscapeAnalysis} to see the worst case, when the views cannot be scalar replaced.</p>
+ */
+public final class BufferRebindBenchmark {
+
+	private static final int VERTICES = 4096;
+
+	private static final int WARMUP_ROUNDS = 2000;
+	private static final int ROUNDS        = 10000;
+
+	private BufferRebindBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		long vertices = nmemCalloc(VERTICES, 3 * 4);
+		try {
+			float sum = 0.0f;
+
+			for ( int i = 0; i < WARMUP_ROUNDS; i++ ) {
+				sum += allocate(vertices);
+				sum += rebind(vertices);
+			}
+
+			long t = System.nanoTime();
+			long bytes = getAllocatedBytes();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += allocate(vertices);
+			report("memFloatBuffer", "view", (long)ROUNDS * VERTICES, t, bytes);
+
+			t = System.nanoTime();
+			bytes = getAllocatedBytes();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += rebind(vertices);
+			report("memSetupBuffer", "view", (long)ROUNDS * VERTICES, t, bytes);
+
+			// Keep the loops alive
+			if ( sum == 42.0f )
+				System.out.println();
+		} finally {
+			nmemFree(vertices);
+		}
+	}
+
+	private static float allocate(long vertices) {
+		float sum = 0.0f;
+		for ( int i = 0; i < VERTICES; i++ ) {
+			FloatBuffer vertex = memFloatBuffer(vertices + i * 12, 3);
+			sum += vertex.get(0) + vertex.get(1) + vertex.get(2);
+		}
+		return sum;
+	}
+
+	private static FloatBuffer target;
+
+	private static float rebind(long vertices) {
+		FloatBuffer vertex = target == null ? memFloatBuffer(vertices, 3) : target;
+
+		float sum = 0.0f;
+		for ( int i = 0; i < VERTICES; i++ ) {
+			vertex = memSetupBuffer(vertex, vertices + i * 12, 3);
+			sum += vertex.get(0) + vertex.get(1) + vertex.get(2);
+		}
+
+		target = vertex;
+		return sum;
+	}
+
+}
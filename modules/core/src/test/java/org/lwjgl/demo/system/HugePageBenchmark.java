@@ -0,0 +1,98 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import org.lwjgl.system.Configuration;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Measures sequential and random access to a large buffer allocated with {@link org.lwjgl.system.MemoryUtil#nmemAlloc nmemAlloc}, with or without
+ * {@link Configuration#MEMORY_HUGE_PAGE_THRESHOLD huge pages}. Usage:
+ *
+ * <pre>HugePageBenchmark [huge|normal] [size in MB]</pre>
+ *
+ * <p>The defaults are huge pages and a 512MB buffer. The allocator can only be configured once per process, so each mode must be measured in a separate
+ * run. Huge pages are only used on Linux, when transparent huge pages are enabled in {@code always} or {@code madvise} mode.</p>
+ */
+public final class HugePageBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	/** The number of random reads per round. */
+	private static final int RANDOM_READS = 1 << 24;
+
+	private HugePageBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		boolean huge = args.length == 0 || "huge".equals(args[0]);
+		long size = (1 < args.length ? Long.parseLong(args[1]) : 512L) << 20;
+
+		// Above the threshold only
+		Configuration.MEMORY_HUGE_PAGE_THRESHOLD.set(huge ? (int)(size >> 10) : 0);
+
+		long address = nmemAlloc(size);
+		if ( address == NULL )
+			throw new OutOfMemoryError();
+
+		try {
+			System.out.format("%s pages, %d MB\n", huge ? "huge" : "normal", size >> 20);
+
+			// Touch all pages first, to exclude page faults from the measurements
+			long t = System.nanoTime();
+			for ( long i = 0; i < size; i += 8 )
+				memPutLong(address + i, i);
+			System.out.format("first touch: %.2f ms\n", (System.nanoTime() - t) / 1e6);
+
+			long sum = 0L;
+			for ( int round = 0; round < ROUNDS; round++ ) {
+				t = System.nanoTime();
+				sum += sequential(address, size);
+				long sequential = System.nanoTime() - t;
+
+				t = System.nanoTime();
+				sum += random(address, size);
+				long random = System.nanoTime() - t;
+
+				System.out.format(
+					"round %d: sequential %.2f GB/s, random %.2f ns per read\n",
+					round,
+					size / (double)sequential,
+					random / (double)RANDOM_READS
+				);
+			}
+
+			// Keep the loops alive
+			if ( sum == 42L )
+				System.out.println();
+		} finally {
+			nmemFree(address);
+		}
+	}
+
+	private static long sequential(long address, long size) {
+		long sum = 0L;
+		for ( long i = 0; i < size; i += 8 )
+			sum += memGetLong(address + i);
+		return sum;
+	}
+
+	private static long random(long address, long size) {
+		long mask = (Long.highestOneBit(size) - 1) & ~7L;
+
+		long sum = 0L;
+		long seed = 0x2545F4914F6CDD1DL;
+		for ( int i = 0; i < RANDOM_READS; i++ ) {
+			// xorshift64
+			seed ^= seed << 13;
+			seed ^= seed >>> 7;
+			seed ^= seed << 17;
+			sum += memGetLong(address + (seed & mask));
+		}
+		return sum;
+	}
+
+}
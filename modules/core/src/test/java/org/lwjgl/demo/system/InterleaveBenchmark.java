@@ -0,0 +1,79 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Compares interleaving vertex attributes with a per-element {@link org.lwjgl.system.MemoryUtil#memPutFloat memPutFloat} loop, to
+ * {@link org.lwjgl.system.MemoryUtil#memCopyStrided(long, int, long, int, int, int) memCopyStrided}.
+ *
+ * <p>The vertex layout is a position (3 floats), a normal (3 floats) and a texture coordinate (2 floats). Each attribute is copied from a separate, tightly
+ * packed source buffer.</p>
+ */
+public final class InterleaveBenchmark {
+
+	private static final int VERTICES = 1 << 16;
+	private static final int STRIDE   = (3 + 3 + 2) * 4;
+
+	private static final int WARMUP_ROUNDS = 200;
+	private static final int ROUNDS        = 1000;
+
+	private InterleaveBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		long positions = nmemCalloc(VERTICES, 3 * 4);
+		long normals = nmemCalloc(VERTICES, 3 * 4);
+		long uvs = nmemCalloc(VERTICES, 2 * 4);
+		long vertices = nmemCalloc(VERTICES, STRIDE);
+
+		try {
+			for ( int i = 0; i < WARMUP_ROUNDS; i++ ) {
+				loop(positions, normals, uvs, vertices);
+				strided(positions, normals, uvs, vertices);
+			}
+
+			long t = System.nanoTime();
+			for ( int i = 0; i < ROUNDS; i++ )
+				loop(positions, normals, uvs, vertices);
+			report("memPutFloat loop", t);
+
+			t = System.nanoTime();
+			for ( int i = 0; i < ROUNDS; i++ )
+				strided(positions, normals, uvs, vertices);
+			report("memCopyStrided", t);
+		} finally {
+			nmemFree(vertices);
+			nmemFree(uvs);
+			nmemFree(normals);
+			nmemFree(positions);
+		}
+	}
+
+	private static void loop(long positions, long normals, long uvs, long vertices) {
+		for ( int i = 0; i < VERTICES; i++ ) {
+			long v = vertices + i * STRIDE;
+			for ( int c = 0; c < 3; c++ )
+				memPutFloat(v + c * 4, memGetFloat(positions + (i * 3 + c) * 4));
+			for ( int c = 0; c < 3; c++ )
+				memPutFloat(v + 12 + c * 4, memGetFloat(normals + (i * 3 + c) * 4));
+			for ( int c = 0; c < 2; c++ )
+				memPutFloat(v + 24 + c * 4, memGetFloat(uvs + (i * 2 + c) * 4));
+		}
+	}
+
+	private static void strided(long positions, long normals, long uvs, long vertices) {
+		memCopyStrided(positions, 3 * 4, vertices, STRIDE, 3 * 4, VERTICES);
+		memCopyStrided(normals, 3 * 4, vertices + 12, STRIDE, 3 * 4, VERTICES);
+		memCopyStrided(uvs, 2 * 4, vertices + 24, STRIDE, 2 * 4, VERTICES);
+	}
+
+	private static void report(String name, long t) {
+		long time = System.nanoTime() - t;
+		System.out.format("%s: %.2f ns per vertex\n", name, (double)time / ((long)ROUNDS * VERTICES));
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import org.lwjgl.system.StructBuffer;
+import org.lwjgl.system.libffi.FFIType;
+
+import static org.lwjgl.demo.system.BenchmarkUtil.*;
+
+/**
+ * Compares iterating a struct buffer with {@link StructBuffer#get(int)}, which allocates a struct instance per element, to the flyweight
+ * {@link StructBuffer#point} and {@link StructBuffer#forEach} methods.
+ *
+ * <p>The time per struct and the number of bytes allocated on the Java heap per struct are reported. The allocation rate requires a JVM that supports
+ * {@code com.sun.management.ThreadMXBean}. Run with {@code -XX:-DoEscapeAnalysis} to see the worst case, when the instances returned by {@code get} cannot
+ * be scalar replaced.</p>
+ */
+public final class StructIterationBenchmark {
+
+	private static final int STRUCTS = 1 << 16;
+
+	private static final int WARMUP_ROUNDS = 200;
+	private static final int ROUNDS        = 1000;
+
+	private StructIterationBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		FFIType.Buffer structs = FFIType.calloc(STRUCTS);
+		try {
+			for ( int i = 0; i < STRUCTS; i++ )
+				FFIType.nsize(structs.address(i), i);
+
+			long sum = 0L;
+			for ( int i = 0; i < WARMUP_ROUNDS; i++ ) {
+				sum += get(structs);
+				sum += point(structs);
+				sum += forEach(structs);
+			}
+
+			long t = System.nanoTime();
+			long bytes = getAllocatedBytes();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += get(structs);
+			report("get", "struct", (long)ROUNDS * STRUCTS, t, bytes);
+
+			t = System.nanoTime();
+			bytes = getAllocatedBytes();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += point(structs);
+			report("point", "struct", (long)ROUNDS * STRUCTS, t, bytes);
+
+			t = System.nanoTime();
+			bytes = getAllocatedBytes();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += forEach(structs);
+			report("forEach", "struct", (long)ROUNDS * STRUCTS, t, bytes);
+
+			// Keep the loops alive
+			if ( sum == 42L )
+				System.out.println();
+		} finally {
+			structs.free();
+		}
+	}
+
+	private static long get(FFIType.Buffer structs) {
+		long sum = 0L;
+		for ( int i = 0; i < STRUCTS; i++ )
+			sum += structs.get(i).size();
+		return sum;
+	}
+
+	private static long point(FFIType.Buffer structs) {
+		FFIType flyweight = structs.flyweight();
+
+		long sum = 0L;
+		for ( int i = 0; i < STRUCTS; i++ )
+			sum += structs.point(flyweight, i).size();
+		return sum;
+	}
+
+	private static final class Sum implements StructBuffer.Visitor<FFIType> {
+
+		long value;
+
+		@Override
+		public void visit(int index, FFIType struct) {
+			value += struct.size();
+		}
+
+	}
+
+	private static long forEach(FFIType.Buffer structs) {
+		Sum sum = new Sum();
+		structs.forEach(sum);
+		return sum.value;
+	}
+
+}
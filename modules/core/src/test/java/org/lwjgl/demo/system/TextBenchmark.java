@@ -0,0 +1,81 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.demo.system;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Compares UTF-8 encoding and decoding of ASCII text with {@link org.lwjgl.system.MemoryUtil#memUTF8(CharSequence, boolean, ByteBuffer) memUTF8}, to
+ * {@link String#getBytes(Charset)} and {@link String#String(byte[], Charset)}. Usage:
+ *
+ * <pre>TextBenchmark [length]</pre>
+ *
+ * <p>The default length is 32 characters, which is typical of extension and function names.</p>
+ */
+public final class TextBenchmark {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final int WARMUP_ROUNDS = 200000;
+	private static final int ROUNDS        = 2000000;
+
+	private TextBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		int length = args.length == 0 ? 32 : Integer.parseInt(args[0]);
+
+		StringBuilder sb = new StringBuilder(length);
+		for ( int i = 0; i < length; i++ )
+			sb.append((char)('a' + i % 26));
+		String text = sb.toString();
+
+		ByteBuffer target = memAlloc(length + 1);
+		byte[] bytes = text.getBytes(UTF8);
+		try {
+			int sum = 0;
+			for ( int i = 0; i < WARMUP_ROUNDS; i++ ) {
+				sum += memUTF8(text, true, target);
+				sum += text.getBytes(UTF8).length;
+				sum += memUTF8(target, length, 0).length();
+				sum += new String(bytes, UTF8).length();
+			}
+
+			long t = System.nanoTime();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += memUTF8(text, true, target);
+			report("encode memUTF8", t);
+
+			t = System.nanoTime();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += text.getBytes(UTF8).length;
+			report("encode String.getBytes", t);
+
+			t = System.nanoTime();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += memUTF8(target, length, 0).length();
+			report("decode memUTF8", t);
+
+			t = System.nanoTime();
+			for ( int i = 0; i < ROUNDS; i++ )
+				sum += new String(bytes, UTF8).length();
+			report("decode new String", t);
+
+			// Keep the loops alive
+			if ( sum == 42 )
+				System.out.println();
+		} finally {
+			memFree(target);
+		}
+	}
+
+	private static void report(String name, long t) {
+		System.out.format("%s: %.2f ns per string\n", name, (double)(System.nanoTime() - t) / ROUNDS);
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.nio.*;
+
+import static org.testng.Assert.*;
+
+@Test
+public class ArenaTest {
+
+	public void testAllocation() {
+		MemoryArena arena = MemoryArena.create(64);
+		try {
+			long a = arena.nmalloc(1, 3);
+			long b = arena.nmalloc(8, 8);
+			assertEquals(b & 7, 0);
+			assertTrue(a < b);
+
+			IntBuffer ints = arena.ints(1, 2, 3);
+			assertEquals(ints.remaining(), 3);
+			assertEquals(ints.get(2), 3);
+
+			// does not fit in the current chunk
+			ByteBuffer large = arena.calloc(256);
+			for ( int i = 0; i < large.capacity(); i++ )
+				assertEquals(large.get(i), 0);
+
+			assertEquals(arena.getCapacity(), 64 + 256);
+
+			ByteBuffer text = arena.UTF8("LWJGL");
+			assertEquals(text.remaining(), 6);
+		} finally {
+			arena.free();
+		}
+
+		assertEquals(arena.getCapacity(), 0);
+	}
+
+	@Test(expectedExceptions = OutOfMemoryError.class)
+	public void testCallocOverflow() {
+		MemoryArena arena = MemoryArena.create(64);
+		try {
+			// 2^32 bytes, would wrap around to 0 in int arithmetic
+			arena.ncalloc(8, 1 << 16, 1 << 16);
+		} finally {
+			arena.free();
+		}
+	}
+
+	public void testReset() {
+		MemoryArena arena = MemoryArena.create(64);
+		try {
+			long a = arena.nmalloc(8, 32);
+			arena.nmalloc(8, 48);
+
+			long capacity = arena.getCapacity();
+
+			// chunks are reused
+			arena.reset();
+			assertEquals(arena.nmalloc(8, 32), a);
+			arena.nmalloc(8, 48);
+			assertEquals(arena.getCapacity(), capacity);
+		} finally {
+			arena.close();
+		}
+	}
+
+}
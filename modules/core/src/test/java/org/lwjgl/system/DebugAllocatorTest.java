@@ -0,0 +1,165 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.system.MemoryManage.AllocationTable;
+import org.lwjgl.system.MemoryManage.DebugAllocator;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.lwjgl.system.MemoryManage.DebugAllocator.*;
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class DebugAllocatorTest {
+
+	private static int hash(long address) {
+		return AllocationTable.hash(address) >>> AllocationTable.STRIPE_BITS;
+	}
+
+	/** Returns {@code count} fake addresses with the specified home slot, in a table with the specified mask. */
+	private static long[] findAddresses(int home, int mask, int count) {
+		long[] addresses = new long[count];
+		for ( long address = 16L, i = 0; i < count; address += 16L ) {
+			if ( (hash(address) & mask) == home )
+				addresses[(int)i++] = address;
+		}
+		return addresses;
+	}
+
+	private static void put(AllocationTable table, long address, long size, int tag) {
+		assertTrue(table.put(hash(address), address, size, 1L, 0, tag));
+	}
+
+	public void testTableCollisions() {
+		AllocationTable table = new AllocationTable(16);
+		try {
+			// Three addresses with their home at the last slot, the second and third wrap around to slots 0 and 1
+			long[] wrapped = findAddresses(15, 15, 3);
+			// An address with its home at slot 1, displaced to slot 2
+			long[] displaced = findAddresses(1, 15, 1);
+
+			put(table, wrapped[0], 10L, 1);
+			put(table, wrapped[1], 11L, 2);
+			put(table, wrapped[2], 12L, 3);
+			put(table, displaced[0], 13L, 4);
+
+			assertFalse(table.put(hash(wrapped[1]), wrapped[1], 11L, 1L, 0, 2));
+			assertEquals(table.size(), 4);
+			assertEquals(table.capacity(), 16);
+
+			// Removing the entry at the last slot shifts back the entries that wrapped around
+			assertEquals(table.remove(hash(wrapped[0]), wrapped[0]), 1);
+			assertEquals(table.get(hash(wrapped[0]), wrapped[0]), -1L);
+			assertEquals(table.get(hash(wrapped[1]), wrapped[1]), 11L);
+			assertEquals(table.get(hash(wrapped[2]), wrapped[2]), 12L);
+			assertEquals(table.get(hash(displaced[0]), displaced[0]), 13L);
+
+			// Removing an entry in the middle of the cluster, the displaced entry must remain reachable
+			assertEquals(table.remove(hash(wrapped[2]), wrapped[2]), 3);
+			assertEquals(table.get(hash(wrapped[1]), wrapped[1]), 11L);
+			assertEquals(table.get(hash(displaced[0]), displaced[0]), 13L);
+
+			assertEquals(table.remove(hash(displaced[0]), displaced[0]), 4);
+			assertEquals(table.remove(hash(wrapped[1]), wrapped[1]), 2);
+
+			assertEquals(table.remove(hash(wrapped[1]), wrapped[1]), -1);
+			assertEquals(table.size(), 0);
+		} finally {
+			table.free();
+		}
+	}
+
+	public void testTableResize() {
+		AllocationTable table = new AllocationTable(16);
+		try {
+			for ( int i = 1; i <= 100; i++ )
+				put(table, i * 16L, i, MEM_TAG_NONE);
+
+			assertEquals(table.size(), 100);
+			assertTrue(200 <= table.capacity());
+
+			for ( int i = 1; i <= 100; i += 2 )
+				assertEquals(table.remove(hash(i * 16L), i * 16L), MEM_TAG_NONE);
+
+			for ( int i = 1; i <= 100; i++ )
+				assertEquals(table.get(hash(i * 16L), i * 16L), (i & 1) == 0 ? i : -1L);
+
+			for ( int i = 2; i <= 100; i += 2 )
+				assertEquals(table.remove(hash(i * 16L), i * 16L), MEM_TAG_NONE);
+
+			assertEquals(table.size(), 0);
+		} finally {
+			table.free();
+		}
+	}
+
+	public void testReallocBetweenStripes() {
+		DebugAllocator allocator = new DebugAllocator(getAllocator());
+
+		long address = allocator.malloc(16L);
+		assertEquals(getTrackedSize(address), 16L);
+
+		// Grow until the block moves to an address tracked by a different stripe
+		boolean moved = false;
+		for ( long size = 32L; !moved && size <= 1024L * 1024L; size <<= 1 ) {
+			long old = address;
+
+			address = allocator.realloc(address, size);
+			assertTrue(address != NULL);
+			assertEquals(getTrackedSize(address), size);
+
+			if ( address != old ) {
+				assertEquals(getTrackedSize(old), -1L);
+				moved = getStripe(address) != getStripe(old);
+			}
+		}
+		assertTrue(moved);
+
+		allocator.free(address);
+		assertEquals(getTrackedSize(address), -1L);
+	}
+
+	public void testLeakReport() {
+		DebugAllocator allocator = new DebugAllocator(getAllocator());
+
+		long address = allocator.malloc(123L);
+		String leak = String.format(
+			"[LWJGL] 123 bytes leaked, thread %d (%s), address: 0x%s\n",
+			Thread.currentThread().getId(),
+			Thread.currentThread().getName(),
+			Long.toHexString(address).toUpperCase()
+		);
+
+		try {
+			assertTrue(getLeakReport().contains(leak));
+		} finally {
+			allocator.free(address);
+		}
+
+		assertFalse(getLeakReport().contains(leak));
+	}
+
+	private static String getLeakReport() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(bytes);
+		reportLeaks(out);
+		out.flush();
+		return bytes.toString();
+	}
+
+	public void testSampling() {
+		int sampled = 0;
+		for ( int i = 0; i < SAMPLING * 8; i++ ) {
+			if ( sample() )
+				sampled++;
+		}
+		assertEquals(sampled, 8);
+	}
+
+}
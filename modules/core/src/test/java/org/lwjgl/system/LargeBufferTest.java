@@ -0,0 +1,99 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class LargeBufferTest {
+
+	public void testGetPut() {
+		LargeBuffer buffer = LargeBuffer.calloc(64L);
+		try {
+			assertEquals(buffer.getLong(56L), 0L);
+
+			buffer
+				.putInt(0L, 0xDEADBEEF)
+				.putDouble(8L, Math.PI)
+				.putByte(63L, (byte)42);
+
+			assertEquals(buffer.getInt(0L), 0xDEADBEEF);
+			assertEquals(buffer.getDouble(8L), Math.PI);
+			assertEquals(memGetByte(buffer.address(63L)), (byte)42);
+
+			float[] src = { 1.0f, 2.0f, 3.0f };
+			float[] dst = new float[3];
+			buffer.put(16L, src, 0, 3).get(16L, dst, 0, 3);
+			assertEquals(dst, src);
+		} finally {
+			buffer.free();
+		}
+	}
+
+	public void testSlice() {
+		LargeBuffer buffer = LargeBuffer.malloc(64L);
+		try {
+			buffer.fill(0);
+
+			LargeBuffer slice = buffer.slice(32L, 16L);
+			assertEquals(slice.size(), 16L);
+			assertEquals(slice.address(), buffer.address() + 32L);
+
+			slice.putLong(8L, 7L);
+			assertEquals(buffer.getLong(40L), 7L);
+
+			slice.copy(8L, buffer, 0L, 8L);
+			assertEquals(buffer.getLong(0L), 7L);
+
+			assertEquals(buffer.asByteBuffer(40L, 8).getLong(0), 7L);
+		} finally {
+			buffer.free();
+		}
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testFreeSlice() {
+		LargeBuffer buffer = LargeBuffer.malloc(64L);
+		try {
+			buffer.slice(0L, 64L).free();
+		} finally {
+			buffer.free();
+		}
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testBounds() {
+		LargeBuffer buffer = LargeBuffer.malloc(16L);
+		try {
+			buffer.getLong(12L);
+		} finally {
+			buffer.free();
+		}
+	}
+
+	public void testMemSetLong() {
+		LargeBuffer buffer = LargeBuffer.malloc(3L << 20);
+		try {
+			memSet(buffer.address(), 0x7F, buffer.size());
+			assertEquals(buffer.getByte(0L), (byte)0x7F);
+			assertEquals(buffer.getByte(buffer.size() - 1L), (byte)0x7F);
+
+			LargeBuffer copy = LargeBuffer.calloc(buffer.size());
+			try {
+				memCopy(buffer.address(), copy.address(), buffer.size());
+				assertEquals(copy.getByte((1L << 20) + 1L), (byte)0x7F);
+				assertEquals(copy.getByte(copy.size() - 1L), (byte)0x7F);
+			} finally {
+				copy.free();
+			}
+		} finally {
+			buffer.free();
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class MappedFileTest {
+
+	public void testReadWrite() throws IOException {
+		File file = File.createTempFile("lwjgl", ".bin");
+		file.deleteOnExit();
+
+		MappedFile rw = MappedFile.map(file, true, 0L, 64L, MappedFile.DEFAULT_WINDOW_SIZE);
+		try {
+			assertEquals(rw.size(), 64L);
+			assertEquals(rw.getWindowCount(), 1);
+
+			rw.getIntBuffer().put(3, 0xDEADBEEF);
+			rw.force();
+		} finally {
+			rw.close();
+		}
+		assertTrue(rw.isClosed());
+		assertEquals(file.length(), 64L);
+
+		MappedFile ro = MappedFile.map(file, false);
+		try {
+			assertFalse(ro.isWritable());
+			assertEquals(memGetInt(ro.address() + 12), 0xDEADBEEF);
+		} finally {
+			ro.close();
+		}
+	}
+
+	public void testWindows() throws IOException {
+		File file = File.createTempFile("lwjgl", ".bin");
+		file.deleteOnExit();
+
+		MappedFile rw = MappedFile.map(file, true, 0L, 100L, 32);
+		try {
+			assertEquals(rw.getWindowCount(), 4);
+			assertEquals(rw.getWindow(3).capacity(), 4);
+
+			memPutByte(rw.getWindowAddress(1), (byte)42);
+			assertEquals(rw.getWindow(1).get(0), (byte)42);
+		} finally {
+			rw.close();
+		}
+
+		MappedFile ro = MappedFile.map(file, false, 32L, 32L, 32);
+		try {
+			assertEquals(ro.getBuffer().get(0), (byte)42);
+		} finally {
+			ro.close();
+		}
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testSingleWindow() throws IOException {
+		File file = File.createTempFile("lwjgl", ".bin");
+		file.deleteOnExit();
+
+		MappedFile rw = MappedFile.map(file, true, 0L, 64L, 32);
+		try {
+			rw.address();
+		} finally {
+			rw.close();
+		}
+	}
+
+}
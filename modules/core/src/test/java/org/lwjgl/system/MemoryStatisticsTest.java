@@ -0,0 +1,135 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+/**
+ * Tests of the memory statistics and the allocation tags.
+ *
+ * <p>The statistics are disabled by default, these tests are skipped unless they are enabled. The {@code tests} target runs this class a second time,
+ * with {@link Configuration#MEMORY_STATISTICS} and {@link Configuration#MEMORY_STATISTICS_TAGS} enabled. The tag tests also run with the debug
+ * allocator.</p>
+ */
+@Test
+public class MemoryStatisticsTest {
+
+	public void testStatistics() {
+		if ( !MemoryStatistics.isEnabled() )
+			return;
+
+		MemoryStatistics.Snapshot before = MemoryStatistics.getSnapshot();
+
+		long address = nmemAlloc(100);
+		nmemFree(address);
+
+		MemoryStatistics.Snapshot after = MemoryStatistics.getSnapshot();
+
+		assertTrue(1 <= after.allocations - before.allocations);
+		assertTrue(1 <= after.frees - before.frees);
+		assertTrue(100 <= after.bytesAllocated - before.bytesAllocated);
+		assertTrue(1 <= after.getHistogram(MemoryStatistics.getSizeClass(100)) - before.getHistogram(MemoryStatistics.getSizeClass(100)));
+	}
+
+	private static final int
+		TAG_SCOPED   = 7,
+		TAG_EXPLICIT = 8,
+		TAG_REALLOC  = 9,
+		TAG_REPORT   = 10;
+
+	public void testTagScoped() {
+		if ( !isTagTracked() )
+			return;
+
+		long before = memGetTagBytes(TAG_SCOPED);
+
+		long address;
+		int previous = memSetTag(TAG_SCOPED);
+		try {
+			assertEquals(memGetTag(), TAG_SCOPED);
+			address = nmemAlloc(100);
+		} finally {
+			memSetTag(previous);
+		}
+		assertEquals(memGetTag(), previous);
+
+		assertEquals(memGetTagBytes(TAG_SCOPED) - before, 100L);
+		nmemFree(address);
+		assertEquals(memGetTagBytes(TAG_SCOPED), before);
+	}
+
+	public void testTagExplicit() {
+		if ( !isTagTracked() )
+			return;
+
+		long before = memGetTagBytes(TAG_EXPLICIT);
+		int tag = memGetTag();
+
+		long a = nmemAlloc(64, TAG_EXPLICIT);
+		long b = nmemCalloc(4, 8, TAG_EXPLICIT);
+		assertEquals(memGetTag(), tag);
+
+		assertEquals(memGetTagBytes(TAG_EXPLICIT) - before, 64L + 32L);
+		nmemFree(a);
+		nmemFree(b);
+		assertEquals(memGetTagBytes(TAG_EXPLICIT), before);
+	}
+
+	public void testTagRealloc() {
+		if ( !isTagTracked() )
+			return;
+
+		long before = memGetTagBytes(TAG_REALLOC);
+
+		long address = nmemAlloc(32, TAG_REALLOC);
+
+		// Reallocated by a thread with a different tag
+		address = nmemRealloc(address, 4096);
+		assertEquals(memGetTagBytes(TAG_REALLOC) - before, 4096L);
+
+		address = nmemRealloc(address, 16);
+		assertEquals(memGetTagBytes(TAG_REALLOC) - before, 16L);
+
+		nmemFree(address);
+		assertEquals(memGetTagBytes(TAG_REALLOC), before);
+	}
+
+	public void testTagReport() {
+		if ( !isTagTracked() )
+			return;
+
+		final long[] memory = new long[1];
+		final long[] count = new long[1];
+		MemoryTagReport report = new MemoryTagReport() {
+			@Override
+			public void invoke(int tag, long bytes, long allocations) {
+				if ( tag == TAG_REPORT ) {
+					memory[0] = bytes;
+					count[0] = allocations;
+				}
+			}
+		};
+
+		long a = nmemAlloc(10, TAG_REPORT);
+		long b = nmemAlloc(20, TAG_REPORT);
+		try {
+			memReport(report);
+			assertEquals(memory[0], 30L);
+			assertEquals(count[0], 2L);
+		} finally {
+			nmemFree(a);
+			nmemFree(b);
+		}
+
+		// Tags without live allocations are not reported
+		memory[0] = count[0] = -1L;
+		memReport(report);
+		assertEquals(count[0], -1L);
+	}
+
+}
\ No newline at end of file
@@ -5,6 +5,7 @@
 package org.lwjgl.system;
 
 import org.lwjgl.BufferUtils;
+import org.lwjgl.PointerBuffer;
 import org.testng.annotations.Test;
 
 import java.nio.*;
@@ -39,6 +40,188 @@ public class MemoryUtilTest {
 			assertEquals(src.get(i), dst.get(i));
 	}
 
+	public void testMemCopyArray() {
+		FloatBuffer buffer = BufferUtils.createFloatBuffer(8);
+
+		float[] src = { 0.0f, 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f, 8.0f, 9.0f };
+		memCopy(src, 2, memAddress(buffer), 8);
+		for ( int i = 0; i < buffer.capacity(); i++ )
+			assertEquals(buffer.get(i), src[i + 2]);
+
+		float[] dst = new float[10];
+		memCopy(memAddress(buffer), dst, 1, 8);
+		assertEquals(dst[0], 0.0f);
+		for ( int i = 0; i < buffer.capacity(); i++ )
+			assertEquals(dst[i + 1], src[i + 2]);
+		assertEquals(dst[9], 0.0f);
+	}
+
+	public void testMemCopySwapped() {
+		ByteBuffer buffer = BufferUtils.createByteBuffer(8);
+
+		memCopySwapped(new int[] { 0x01020304, 0x05060708 }, 0, memAddress(buffer), 2);
+		buffer.order(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		assertEquals(buffer.getInt(0), 0x01020304);
+		assertEquals(buffer.getInt(4), 0x05060708);
+
+		double[] values = { Math.PI };
+		memCopySwapped(values, 0, memAddress(buffer), 1);
+		assertEquals(buffer.getDouble(0), Math.PI);
+
+		double[] dst = new double[1];
+		memCopySwapped(memAddress(buffer), dst, 0, 1);
+		assertEquals(dst[0], Math.PI);
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testMemCopyStridedOverflow() {
+		ByteBuffer dst = BufferUtils.createByteBuffer(16);
+
+		// components * count overflows to 0 in int arithmetic
+		memCopyStrided(new float[4], 0, 1 << 16, memAddress(dst), 1 << 18, 1 << 16);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testMemCopyStridedOverlap() {
+		ByteBuffer src = BufferUtils.createByteBuffer(4 * 4 * 3);
+
+		memCopyStrided(memAddress(src), 2 * 4, new float[4 * 3], 0, 3, 4);
+	}
+
+	public void testMemCopyStrided() {
+		// 4 vertices, position (3 floats) + uv (2 floats)
+		FloatBuffer vertices = BufferUtils.createFloatBuffer(4 * 5);
+		FloatBuffer uvs = BufferUtils.createFloatBuffer(4 * 2);
+		for ( int i = 0; i < uvs.capacity(); i++ )
+			uvs.put(i, i);
+
+		float[] positions = new float[4 * 3];
+		for ( int i = 0; i < positions.length; i++ )
+			positions[i] = 100 + i;
+
+		memCopyStrided(positions, 0, 3, memAddress(vertices), 5 * 4, 4);
+		memCopyStrided(memAddress(uvs), 2 * 4, memAddress(vertices) + 3 * 4, 5 * 4, 2 * 4, 4);
+
+		for ( int v = 0; v < 4; v++ ) {
+			for ( int c = 0; c < 3; c++ )
+				assertEquals(vertices.get(v * 5 + c), positions[v * 3 + c]);
+			for ( int c = 0; c < 2; c++ )
+				assertEquals(vertices.get(v * 5 + 3 + c), uvs.get(v * 2 + c));
+		}
+
+		float[] gathered = new float[4 * 3];
+		memCopyStrided(memAddress(vertices), 5 * 4, gathered, 0, 3, 4);
+		assertEquals(gathered, positions);
+
+		// Unaligned and large elements
+		ByteBuffer src = BufferUtils.createByteBuffer(3 * 100);
+		ByteBuffer dst = BufferUtils.createByteBuffer(3 * 101);
+		for ( int i = 0; i < src.capacity(); i++ )
+			src.put(i, (byte)i);
+		memCopyStrided(memAddress(src), 100, memAddress(dst) + 1, 101, 99, 3);
+		for ( int e = 0; e < 3; e++ ) {
+			for ( int i = 0; i < 99; i++ )
+				assertEquals(dst.get(1 + e * 101 + i), src.get(e * 100 + i));
+		}
+	}
+
+	public void testMemCompare() {
+		ByteBuffer a = BufferUtils.createByteBuffer(21);
+		ByteBuffer b = BufferUtils.createByteBuffer(21);
+		for ( int i = 0; i < a.capacity(); i++ ) {
+			a.put(i, (byte)i);
+			b.put(i, (byte)i);
+		}
+
+		assertEquals(memCompare(memAddress(a), memAddress(b), 21), 0);
+		assertTrue(memEquals(memAddress(a), memAddress(b), 21));
+
+		// Differs in the tail
+		b.put(20, (byte)0xFF);
+		assertTrue(memCompare(memAddress(a), memAddress(b), 21) < 0);
+		assertTrue(memCompare(memAddress(b), memAddress(a), 21) > 0);
+		assertFalse(memEquals(memAddress(a), memAddress(b), 21));
+		assertTrue(memEquals(memAddress(a), memAddress(b), 20));
+
+		// Differs in a word, the first differing byte decides
+		b.put(10, (byte)0x80);
+		b.put(11, (byte)0x00);
+		assertTrue(memCompare(memAddress(a), memAddress(b), 21) < 0);
+	}
+
+	public void testMemIndexOf() {
+		ByteBuffer buffer = BufferUtils.createByteBuffer(37);
+		for ( int i = 0; i < buffer.capacity(); i++ )
+			buffer.put(i, (byte)0x01);
+
+		assertEquals(memIndexOf(memAddress(buffer), 37, (byte)0x00), -1L);
+
+		buffer.put(36, (byte)0x00);
+		assertEquals(memIndexOf(memAddress(buffer), 37, (byte)0x00), 36L);
+
+		buffer.put(17, (byte)0x00);
+		buffer.put(19, (byte)0x00);
+		assertEquals(memIndexOf(memAddress(buffer), 37, (byte)0x00), 17L);
+		assertEquals(memIndexOf(memAddress(buffer), 17, (byte)0x00), -1L);
+
+		buffer.put(3, (byte)0xFF);
+		assertEquals(memIndexOf(memAddress(buffer), 37, (byte)0xFF), 3L);
+	}
+
+	public void testMemHash() {
+		ByteBuffer a = memUTF8("The quick brown fox jumps over the lazy dog", false);
+		ByteBuffer b = memUTF8("The quick brown fox jumps over the lazy dog", false);
+		try {
+			// Known answers of the reference implementation
+			assertEquals(memHash64(memAddress(a), 0L), 0xEF46DB3751D8E999L);
+			assertEquals(memHash32(memAddress(a), 0L), 0x02CC5D05);
+
+			assertEquals(memHash64(memAddress(a), a.remaining()), memHash64(memAddress(b), b.remaining()));
+			assertEquals(memHash32(memAddress(a), a.remaining()), memHash32(memAddress(b), b.remaining()));
+			assertTrue(memHash64(memAddress(a), a.remaining(), 1L) != memHash64(memAddress(a), a.remaining(), 2L));
+
+			b.put(0, (byte)'t');
+			assertTrue(memHash64(memAddress(a), a.remaining()) != memHash64(memAddress(b), b.remaining()));
+		} finally {
+			memFree(b);
+			memFree(a);
+		}
+	}
+
+	public void testTextASCIIFastPath() {
+		String[] strings = {
+			"",
+			"GL_ARB",
+			"GL_ARB_vertex_array_object",
+			"GL_ARB_vertex_array_object\u00E9",
+			"\u00E9GL_ARB_vertex_array_object",
+			"GL_ARB_vertex_\u20AC_array_\uD83D\uDE00_object_with_a_long_tail"
+		};
+
+		for ( String s : strings ) {
+			ByteBuffer utf8 = memUTF8(s, false);
+			assertEquals(memUTF8(utf8), s);
+
+			ByteBuffer target = BufferUtils.createByteBuffer(utf8.remaining() + 1);
+			memUTF8(s, true, target);
+			assertEquals(target, memUTF8(s, true));
+			assertEquals(memUTF8(memAddress(target)), s);
+		}
+
+		ByteBuffer ascii = memASCII("0123456789abcdef01234", false);
+		assertEquals(memASCII(ascii), "0123456789abcdef01234");
+
+		// Non-ASCII bytes keep the sign-extending behavior of the slow path
+		ascii.put(17, (byte)0xE9);
+		assertEquals(memASCII(ascii).charAt(17), (char)(byte)0xE9);
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testMemCopyArrayBounds() {
+		ByteBuffer buffer = BufferUtils.createByteBuffer(16);
+		memCopy(new int[4], 1, memAddress(buffer), 4);
+	}
+
 	public void testJNINewBuffer() {
 		ByteBuffer buffer = BufferUtils.createByteBuffer(32);
 		for ( int i = 0; i < buffer.capacity(); i++ )
@@ -141,4 +324,137 @@ public class MemoryUtilTest {
 			assertEquals(buffer.getDouble(i << 3), db.get(i));
 	}
 
+	public void testSetupBuffer() {
+		long address = nmemCalloc(4, 8);
+		try {
+			memPutFloat(address + 16, 1.0f);
+
+			FloatBuffer view = memFloatBuffer(address, 8);
+			view.position(3);
+
+			FloatBuffer rebound = memSetupBuffer(view, address + 16, 2);
+			assertEquals(memAddress(rebound), address + 16);
+			assertEquals(rebound.capacity(), 2);
+			assertEquals(rebound.position(), 0);
+			assertEquals(rebound.get(0), 1.0f);
+		} finally {
+			nmemFree(address);
+		}
+	}
+
+	public void testPooledAllocator() {
+		MemoryAllocator allocator = new MemoryManage.PooledAllocator(getAllocator());
+
+		long a = allocator.malloc(24);
+		long b = allocator.malloc(24);
+		assertTrue(a != NULL && b != NULL && a != b);
+
+		memPutLong(a, 0xDEADBEEFL);
+		memPutLong(b, 0xCAFEBABEL);
+
+		// grows to another size class
+		long c = allocator.realloc(a, 100);
+		assertEquals(memGetLong(c), 0xDEADBEEFL);
+
+		// freed blocks are reused
+		allocator.free(b);
+		assertEquals(allocator.malloc(32), b);
+
+		long z = allocator.calloc(4, 8);
+		for ( int i = 0; i < 32; i += 8 )
+			assertEquals(memGetLong(z + i), 0L);
+
+		// large allocations use the underlying allocator
+		long large = allocator.malloc(MemoryManage.PooledAllocator.MAX_POOLED_SIZE + 1);
+		assertTrue(large != NULL);
+
+		allocator.free(large);
+		allocator.free(z);
+		allocator.free(b);
+		allocator.free(c);
+	}
+
+	public void testHugePageAllocator() {
+		if ( Platform.get() != Platform.LINUX )
+			return;
+
+		long threshold = MemoryManage.HugePageAllocator.HUGE_PAGE_SIZE;
+		MemoryManage.HugePageAllocator allocator = new MemoryManage.HugePageAllocator(getAllocator(), threshold);
+
+		long small = allocator.malloc(64);
+		long large = allocator.malloc(threshold + 1);
+		assertTrue(small != NULL && large != NULL);
+
+		// mappings are aligned to the huge page size
+		assertEquals(large & (threshold - 1), 0L);
+		memPutLong(large + threshold, 0xDEADBEEFL);
+
+		// mappings are never resized in place
+		assertEquals(allocator.realloc_in_place(large, threshold), 0L);
+		assertTrue(allocator.realloc_in_place(large, 3 * threshold) < 3 * threshold);
+
+		// grows to a new mapping
+		long grown = allocator.realloc(large, 3 * threshold);
+		assertEquals(memGetLong(grown + threshold), 0xDEADBEEFL);
+
+		long zeroed = allocator.calloc(threshold, 2);
+		assertEquals(memGetLong(zeroed + threshold), 0L);
+
+		allocator.free(zeroed);
+		allocator.free(grown);
+		allocator.free(small);
+	}
+
+	public void testMemoryHandle() {
+		MemoryHandle handle = MemoryHandle.calloc(4, 8);
+		assertEquals(handle.size(), 32);
+		assertEquals(handle.buffer().getLong(24), 0L);
+
+		PointerBuffer pointers = handle.pointerBuffer();
+		pointers.put(0, 0xDEADBEEFL);
+		assertEquals(memGetAddress(handle.address()), 0xDEADBEEFL);
+
+		handle.close();
+		assertTrue(handle.isClosed());
+
+		// closing twice is a no-op
+		handle.close();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testMemoryHandleClosed() {
+		MemoryHandle handle = MemoryHandle.malloc(8);
+		handle.close();
+		handle.address();
+	}
+
+	public void testSizedFree() {
+		ByteBuffer bytes = memAlloc(24);
+		memFree(bytes);
+
+		LongBuffer longs = memAllocLong(3);
+		memFree(longs);
+
+		PointerBuffer pointers = memAllocPointer(3);
+		memFree(pointers);
+
+		// A block resized in place must be freed with its new size
+		long address = nmemAlloc(16);
+		nmemFree(address, nmemReallocInPlace(address, 8) ? 8 : 16);
+
+		// Growing in place may fail, the block must then be freed with its old size
+		address = nmemAlloc(64 * 1024);
+		long size = nmemReallocInPlace(address, 128 * 1024) ? 128 * 1024 : 64 * 1024;
+		memPutLong(address + size - 8, 0xDEADBEEFL);
+		assertEquals(memGetLong(address + size - 8), 0xDEADBEEFL);
+		nmemFree(address, size);
+
+		// A shrink with realloc must be freeable
+		bytes = memAlloc(64 * 1024);
+		bytes.putLong(0, 0xDEADBEEFL);
+		bytes = memRealloc(bytes, 8);
+		assertEquals(bytes.getLong(0), 0xDEADBEEFL);
+		memFree(bytes);
+	}
+
 }
\ No newline at end of file
@@ -4,9 +4,13 @@
  */
 package org.lwjgl.system;
 
+import org.lwjgl.system.MemoryStack.StackPool;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.CountDownLatch;
+
 import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
 import static org.testng.Assert.*;
 
 @Test
@@ -85,6 +89,208 @@ public class StackTest {
 		stack.pop();
 	}
 
+	public void testGrowable() {
+		MemoryStack stack = new MemoryStack(64, true);
+
+		stack.push();
+		{
+			stack.malloc(48);
+			assertEquals(stack.getPointer(), 16);
+
+			stack.push();
+			{
+				// does not fit, a new segment is chained
+				long address = stack.nmalloc(8, 32);
+				assertTrue(stack.getPointer() < 0);
+				memPutLong(address, 0xDEADBEEFL);
+				assertEquals(memGetLong(address), 0xDEADBEEFL);
+
+				// larger than the base segment
+				stack.malloc(256);
+				assertEquals(stack.getFrameIndex(), 2);
+			}
+			stack.pop();
+
+			assertEquals(stack.getPointer(), 16);
+		}
+		stack.pop();
+
+		assertEquals(stack.getPointer(), 64);
+		assertEquals(stack.getFrameIndex(), 0);
+	}
+
+	public void testGrowableSetPointer() {
+		MemoryStack stack = new MemoryStack(64, true);
+
+		int pointer = stack.getPointer();
+		stack.malloc(128);
+		assertTrue(stack.getPointer() < 0);
+
+		stack.setPointer(pointer);
+		assertEquals(stack.getPointer(), 64);
+
+		// the base segment is used again
+		stack.malloc(8);
+		assertEquals(stack.getPointer(), 56);
+	}
+
+	public void testFrame() {
+		MemoryStack stack = MemoryStack.create(64);
+
+		Frame outer = stack.pushFrame();
+		assertEquals(outer.getIndex(), 0);
+		assertEquals(stack.getFrameIndex(), 1);
+		{
+			stack.malloc(8);
+
+			Frame inner = stack.pushFrame();
+			assertEquals(inner.getIndex(), 1);
+			stack.malloc(8);
+			inner.close();
+
+			assertEquals(stack.getPointer(), 56);
+
+			// handles are reused at the same depth
+			assertSame(stack.pushFrame(), inner);
+			inner.close();
+		}
+		outer.close();
+
+		assertEquals(stack.getPointer(), 64);
+		assertEquals(stack.getFrameIndex(), 0);
+		assertSame(stack.pushFrame(), outer);
+		outer.close();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testFrameAsymmetricPop() {
+		MemoryStack stack = MemoryStack.create(64);
+
+		Frame outer = stack.pushFrame();
+		stack.pushFrame();
+		outer.close();
+	}
+
+	public void testStatistics() {
+		MemoryStack stack = MemoryStack.create(64, true);
+
+		assertEquals(stack.getHighWatermark(), 0);
+		assertEquals(stack.getMaxFrameDepth(), 0);
+		assertEquals(stack.getOverflowCount(), 0);
+
+		stack.push();
+		{
+			stack.malloc(16);
+			stack.push();
+			{
+				stack.malloc(8);
+			}
+			stack.pop();
+		}
+		stack.pop();
+
+		assertEquals(stack.getHighWatermark(), 24);
+		assertEquals(stack.getMaxFrameDepth(), 2);
+		assertEquals(stack.getOverflowCount(), 0);
+
+		stack.push();
+		{
+			stack.malloc(128);
+		}
+		stack.pop();
+
+		assertTrue(64 < stack.getHighWatermark());
+		assertEquals(stack.getOverflowCount(), 1);
+
+		stack.resetStatistics();
+		assertEquals(stack.getHighWatermark(), 0);
+		assertEquals(stack.getMaxFrameDepth(), 0);
+		assertEquals(stack.getOverflowCount(), 0);
+	}
+
+	public void testStackReport() {
+		final long threadId = Thread.currentThread().getId();
+
+		MemoryStack stack = stackGet();
+		stack.push();
+		stack.malloc(8);
+		stack.pop();
+
+		final boolean[] found = new boolean[1];
+		stackReport(new StackReport() {
+			@Override
+			public void invoke(long id, String threadName, int size, long highWatermark, int maxFrameDepth, int overflows) {
+				if ( id == threadId ) {
+					assertTrue(8 <= highWatermark);
+					assertTrue(1 <= maxFrameDepth);
+					found[0] = true;
+				}
+			}
+		});
+		assertTrue(found[0]);
+	}
+
+	public void testStackPool() throws InterruptedException {
+		StackPool pool = new StackPool(1);
+		long[] segments = new long[3];
+
+		// Two concurrent threads, each allocates a segment
+		CountDownLatch latch = new CountDownLatch(2);
+		Thread a = startPooledThread(pool, segments, 0, latch);
+		Thread b = startPooledThread(pool, segments, 1, latch);
+		a.join();
+		b.join();
+
+		assertTrue(segments[0] != segments[1]);
+		assertEquals(pool.size(), 0);
+
+		// Both threads are found terminated. One segment is reused, the other does not fit in the pool and is freed.
+		startPooledThread(pool, segments, 2, new CountDownLatch(1)).join();
+
+		assertTrue(segments[2] == segments[0] || segments[2] == segments[1]);
+		assertEquals(pool.size(), 0);
+
+		// The segment of the last thread is recycled
+		long segment = pool.acquire();
+		assertEquals(segment, segments[2]);
+		assertEquals(pool.acquire(), NULL);
+
+		nmemFree(segment);
+	}
+
+	private static Thread startPooledThread(final StackPool pool, final long[] segments, final int index, final CountDownLatch latch) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				segments[index] = MemoryStack.createThreadLocal(pool).getAddress();
+
+				// Keep the thread alive until all threads have a stack
+				latch.countDown();
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+		thread.start();
+		return thread;
+	}
+
+	public void testFree() {
+		MemoryStack stack = MemoryStack.create(64, true);
+
+		// chained segments are freed too
+		stack.push();
+		stack.malloc(128);
+		stack.free();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testFreeThreadLocal() {
+		stackGet().free();
+	}
+
 	@Test(expectedExceptions = StackOverflowError.class)
 	public void testSOE() {
 		MemoryStack stack = MemoryStack.create();
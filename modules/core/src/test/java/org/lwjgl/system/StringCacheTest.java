@@ -0,0 +1,58 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class StringCacheTest {
+
+	public void testDecode() {
+		StringCache cache = StringCache.createASCII(16);
+		assertEquals(cache.getCapacity(), 16);
+
+		ByteBuffer a = memASCII("GL_ARB_vertex_array_object");
+		ByteBuffer b = memASCII("GL_ARB_vertex_array_object");
+		try {
+			String s = cache.decode(memAddress(a));
+			assertEquals(s, "GL_ARB_vertex_array_object");
+
+			// Same contents at a different address
+			assertSame(cache.decode(memAddress(b)), s);
+
+			// Different contents at the same address
+			b.put(0, (byte)'W');
+			assertEquals(cache.decode(memAddress(b)), "WL_ARB_vertex_array_object");
+
+			assertNull(cache.decode(NULL));
+		} finally {
+			memFree(b);
+			memFree(a);
+		}
+	}
+
+	public void testEncode() {
+		StringCache cache = StringCache.createUTF8(16);
+
+		ByteBuffer encoded = cache.encode("glGetString\u00E9");
+		assertSame(cache.encode("glGetString\u00E9"), encoded);
+		assertEquals(encoded.remaining(), 14);
+		assertEquals(encoded.get(13), (byte)0);
+		assertEquals(memUTF8(memAddress(encoded)), "glGetString\u00E9");
+
+		// Decoded strings are available for encoding
+		String s = cache.decode(memAddress(encoded));
+		assertEquals(cache.encode(s), encoded);
+
+		cache.clear();
+		assertNotSame(cache.encode("glGetString\u00E9"), encoded);
+	}
+
+}
@@ -7,6 +7,11 @@ package org.lwjgl.system;
 import org.lwjgl.system.libffi.FFIType;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.lwjgl.system.MemoryUtil.*;
 import static org.lwjgl.system.Pointer.*;
 import static org.lwjgl.system.libffi.LibFFI.*;
@@ -143,4 +148,87 @@ public class StructTest {
 		b.free();
 	}
 
+	public void testStructBufferFlyweight() {
+		FFIType.Buffer b = FFIType.calloc(10);
+		for ( int i = 0; i < b.capacity(); i++ )
+			FFIType.nsize(b.address(i), i);
+
+		FFIType flyweight = b.flyweight();
+		assertEquals(flyweight.address(), b.address0());
+
+		for ( int i = 0; i < b.capacity(); i++ ) {
+			assertSame(b.point(flyweight, i), flyweight);
+			assertEquals(flyweight.address(), b.address0() + i * FFIType.SIZEOF);
+			assertEquals(flyweight.size(), i);
+		}
+
+		b.position(3);
+
+		final int[] sum = { 0, 0 };
+		b.forEach(new StructBuffer.Visitor<FFIType>() {
+			@Override
+			public void visit(int index, FFIType struct) {
+				assertEquals(struct.size(), index);
+				sum[0] += struct.size();
+				sum[1]++;
+			}
+		});
+
+		assertEquals(sum[0], 3 + 4 + 5 + 6 + 7 + 8 + 9);
+		assertEquals(sum[1], 7);
+		assertEquals(b.position(), 3);
+
+		b.free();
+	}
+
+	public void testStructBufferParallel() {
+		FFIType.Buffer b = FFIType.calloc(1000);
+		for ( int i = 0; i < b.capacity(); i++ )
+			FFIType.nsize(b.address(i), i);
+
+		b.position(10);
+
+		final AtomicLong sum = new AtomicLong();
+		final AtomicInteger count = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			b.forEach(new StructBuffer.Visitor<FFIType>() {
+				@Override
+				public void visit(int index, FFIType struct) {
+					assertEquals(struct.size(), index);
+					sum.addAndGet(struct.size());
+					count.incrementAndGet();
+				}
+			}, executor, 4);
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(count.get(), 990);
+		assertEquals(sum.get(), 999L * 1000 / 2 - 9 * 10 / 2);
+		assertEquals(b.position(), 10);
+
+		b.free();
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testStructBufferParallelException() {
+		FFIType.Buffer b = FFIType.calloc(100);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			b.forEach(new StructBuffer.Visitor<FFIType>() {
+				@Override
+				public void visit(int index, FFIType struct) {
+					if ( index == 10 )
+						throw new IllegalStateException();
+				}
+			}, executor, 4);
+		} finally {
+			executor.shutdown();
+			b.free();
+		}
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system;
+
+import org.lwjgl.BufferUtils;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.system.MemoryUtil.*;
+import static org.testng.Assert.*;
+
+@Test
+public class TextEncoderTest {
+
+	private static String createText() {
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 0; i < 1000; i++ )
+			sb.append("void main() { gl_FragColor = vec4(1.0); } // \u00E9\u20AC\uD83D\uDE00\n");
+		return sb.toString();
+	}
+
+	public void testGrowableUTF8() {
+		String text = createText();
+
+		TextEncoder encoder = TextEncoder.createUTF8(16);
+		try {
+			encoder.append(text).nullTerminate();
+
+			assertEquals(encoder.getEncodedLength(), memLengthUTF8(text, true));
+			assertEquals(memUTF8(encoder.address()), text);
+		} finally {
+			encoder.close();
+		}
+	}
+
+	public void testGrowableUTF16() {
+		String text = createText();
+
+		TextEncoder encoder = TextEncoder.createUTF16(16);
+		try {
+			encoder.append(text, 0, 100).append(text, 100, text.length());
+
+			assertEquals(encoder.size(), text.length() * 2);
+			assertEquals(memUTF16(encoder.getBuffer()), text);
+		} finally {
+			encoder.close();
+		}
+	}
+
+	public void testSplitSurrogatePair() {
+		String text = "a\uD83D\uDE00b";
+
+		TextEncoder encoder = TextEncoder.createUTF8(16);
+		try {
+			encoder.append(text, 0, 2).append(text, 2, 4);
+			assertEquals(memUTF8(encoder.getBuffer()), text);
+
+			encoder.reset();
+			encoder.append("\uD83D").nullTerminate();
+			assertEquals(memUTF8(encoder.address()), "?");
+		} finally {
+			encoder.close();
+		}
+	}
+
+	public void testFinishPendingSurrogate() {
+		TextEncoder encoder = TextEncoder.createUTF8(16);
+		try {
+			encoder.append("a\uD83D");
+			assertEquals(encoder.size(), 1);
+
+			encoder.finish();
+			assertEquals(memUTF8(encoder.getBuffer()), "a?");
+		} finally {
+			encoder.close();
+		}
+
+		encoder = TextEncoder.createUTF16(16);
+		try {
+			encoder.append("a\uD83D").finish();
+			assertEquals(memUTF16(encoder.getBuffer()), "a\uD83D");
+		} finally {
+			encoder.close();
+		}
+	}
+
+	public void testRing() {
+		String text = createText();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteBuffer[] ring = { BufferUtils.createByteBuffer(64), BufferUtils.createByteBuffer(64) };
+
+		TextEncoder encoder = TextEncoder.createUTF8(ring, new TextEncoder.ChunkHandler() {
+			@Override
+			public void handle(int index, long address, int bytes) {
+				assertEquals(address, memAddress(ring[index]));
+				assertTrue(bytes <= 64);
+
+				byte[] chunk = new byte[bytes];
+				memByteBuffer(address, bytes).get(chunk);
+				out.write(chunk, 0, bytes);
+			}
+		});
+
+		encoder.append(text).flush();
+
+		assertEquals(encoder.getEncodedLength(), out.size());
+
+		ByteBuffer encoded = BufferUtils.createByteBuffer(out.size());
+		encoded.put(out.toByteArray()).flip();
+		assertEquals(memUTF8(encoded), text);
+	}
+
+	public void testRingUTF16() {
+		String text = createText();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteBuffer[] ring = { BufferUtils.createByteBuffer(TextEncoder.MIN_CHUNK_SIZE), BufferUtils.createByteBuffer(TextEncoder.MIN_CHUNK_SIZE) };
+
+		TextEncoder encoder = TextEncoder.createUTF16(ring, new TextEncoder.ChunkHandler() {
+			@Override
+			public void handle(int index, long address, int bytes) {
+				// Surrogate pairs are never split between chunks
+				assertFalse(Character.isHighSurrogate((char)memGetShort(address + bytes - 2)));
+
+				byte[] chunk = new byte[bytes];
+				memByteBuffer(address, bytes).get(chunk);
+				out.write(chunk, 0, bytes);
+			}
+		});
+
+		// Odd split points, some of them between the halves of a surrogate pair
+		for ( int i = 0; i < text.length(); i += 13 )
+			encoder.append(text, i, Math.min(i + 13, text.length()));
+		encoder.flush();
+
+		assertEquals(encoder.getEncodedLength(), text.length() * 2);
+
+		ByteBuffer encoded = BufferUtils.createByteBuffer(out.size());
+		encoded.put(out.toByteArray()).flip();
+		assertEquals(memUTF16(encoded), text);
+	}
+
+}
@@ -601,6 +601,26 @@ $indentation}"""
 		return address == NULL ? null : new Buffer(address, null, -1, 0, $BUFFER_CAPACITY_PARAM, $BUFFER_CAPACITY_PARAM);
 	}
 
+	/**
+	 * Returns a new {@link $className} instance backed by the memory of the specified {@link MemoryHandle}. The memory is freed when the handle is closed,
+	 * or after both the handle and the instance have become unreachable.
+	 *
+	 * @param handle the handle that owns the memory, at least {@link #SIZEOF} bytes
+	 */
+	public static $className create(MemoryHandle handle) {
+		return new $className(handle.buffer());
+	}
+
+	/**
+	 * Returns a new {@link $className.Buffer} instance backed by the memory of the specified {@link MemoryHandle}. The buffer capacity is the handle size
+	 * divided by {@link #SIZEOF}. The memory is freed when the handle is closed, or after both the handle and the buffer have become unreachable.
+	 *
+	 * @param handle the handle that owns the memory
+	 */
+	public static Buffer createBuffer(MemoryHandle handle) {
+		return new Buffer(handle.buffer());
+	}
+
 	// -----------------------------------
 
 	/** Returns a new {@link $className} instance allocated on the thread-local {@link MemoryStack}. */
@@ -670,6 +690,46 @@ $indentation}"""
 	}
 
 	// -----------------------------------
+
+	/**
+	 * Returns a new {@link $className} instance allocated in the specified {@link MemoryArena}.
+	 *
+	 * @param arena the arena from which to allocate
+	 */
+	public static $className malloc(MemoryArena arena) {
+		return create(arena.nmalloc(ALIGNOF, SIZEOF));
+	}
+
+	/**
+	 * Returns a new {@link $className} instance allocated in the specified {@link MemoryArena} and initializes all its bits to zero.
+	 *
+	 * @param arena the arena from which to allocate
+	 */
+	public static $className calloc(MemoryArena arena) {
+		return create(arena.ncalloc(ALIGNOF, 1, SIZEOF));
+	}
+
+	/**
+	 * Returns a new {@link $className.Buffer} instance allocated in the specified {@link MemoryArena}.
+	 *
+	 * @param $BUFFER_CAPACITY_PARAM the buffer capacity
+	 * @param arena the arena from which to allocate
+	 */
+	public static Buffer malloc(int $BUFFER_CAPACITY_PARAM, MemoryArena arena) {
+		return create(arena.nmalloc(ALIGNOF, $BUFFER_CAPACITY_PARAM * SIZEOF), $BUFFER_CAPACITY_PARAM);
+	}
+
+	/**
+	 * Returns a new {@link $className.Buffer} instance allocated in the specified {@link MemoryArena} and initializes all its bits to zero.
+	 *
+	 * @param $BUFFER_CAPACITY_PARAM the buffer capacity
+	 * @param arena the arena from which to allocate
+	 */
+	public static Buffer calloc(int $BUFFER_CAPACITY_PARAM, MemoryArena arena) {
+		return create(arena.ncalloc(ALIGNOF, $BUFFER_CAPACITY_PARAM, SIZEOF), $BUFFER_CAPACITY_PARAM);
+	}
+
+	// -----------------------------------
 """)
 
 		if ( members.any() ) {
@@ -1339,6 +1399,10 @@ ${validations.joinToString("\n")}
 						println("\tpublic static $bufferType n$getter(long $STRUCT) {")
 						println("\t\treturn mem$bufferType($STRUCT + $field, ${it.size});")
 						println("\t}")
+						println("\t/** Unsafe version of {@link #${getter}Rebind($bufferType) ${getter}Rebind}. */")
+						println("\tpublic static $bufferType n${getter}Rebind(long $STRUCT, $bufferType target) {")
+						println("\t\treturn target == null ? mem$bufferType($STRUCT + $field, ${it.size}) : memSetupBuffer(target, $STRUCT + $field, ${it.size});")
+						println("\t}")
 
 						val javaType = mapping.javaMethodType.simpleName
 						val bufferMethod = getBufferMethod(it, javaType)
@@ -1371,9 +1435,17 @@ ${validations.joinToString("\n")}
 					if ( capacity == null ) {
 						println("\t/** Unsafe version of {@link #$getter(int) $getter}. */")
 						println("\tpublic static $bufferType n$getter(long $STRUCT, int $BUFFER_CAPACITY_PARAM) { return mem$bufferType(memGetAddress($STRUCT + $field), $BUFFER_CAPACITY_PARAM); }")
+						println("\t/** Unsafe version of {@link #${getter}Rebind(int, $bufferType) ${getter}Rebind}. */")
+						println("\tpublic static $bufferType n${getter}Rebind(long $STRUCT, int $BUFFER_CAPACITY_PARAM, $bufferType target) {")
+						println("\t\treturn target == null ? n$getter($STRUCT, $BUFFER_CAPACITY_PARAM) : memSetupBuffer(target, memGetAddress($STRUCT + $field), $BUFFER_CAPACITY_PARAM);")
+						println("\t}")
 					} else {
 						println("\t/** Unsafe version of {@link #$getter() $getter}. */")
 						println("\tpublic static $bufferType n$getter(long $STRUCT) { return mem$bufferType(memGetAddress($STRUCT + $field), ${capacity.autoSize}); }")
+						println("\t/** Unsafe version of {@link #${getter}Rebind($bufferType) ${getter}Rebind}. */")
+						println("\tpublic static $bufferType n${getter}Rebind(long $STRUCT, $bufferType target) {")
+						println("\t\treturn target == null ? n$getter($STRUCT) : memSetupBuffer(target, memGetAddress($STRUCT + $field), ${capacity.autoSize});")
+						println("\t}")
 					}
 
 				}
@@ -1444,6 +1516,12 @@ ${validations.joinToString("\n")}
 						val bufferType = it.primitiveMapping.toPointer.javaMethodType.simpleName
 						println("$indent/** Returns a {@link $bufferType} view of the {@code $getter} field. */")
 						println("${indent}public $bufferType $getter() { return $n$getter($ADDRESS); }")
+						println("""$indent/**
+$indent * Rebinds the specified {@link $bufferType} to the {@code $getter} field and returns it, without allocating a new view.
+$indent *
+$indent * @param target the buffer to rebind, or null to allocate a new view. See {@link MemoryUtil#memSetupBuffer($bufferType, long, int) memSetupBuffer}.
+$indent */""")
+						println("${indent}public $bufferType ${getter}Rebind($bufferType target) { return $n${getter}Rebind($ADDRESS, target); }")
 						println("$indent/** Returns the value at the specified index of the {@code $getter} field. */")
 						println("${indent}public ${it.nativeType.javaMethodType.simpleName} $getter(int index) { return $n$getter($ADDRESS, index); }")
 					}
@@ -1482,9 +1560,23 @@ $indent *
 $indent * @param $BUFFER_CAPACITY_PARAM the number of elements in the returned buffer
 $indent */""")
 						println("${indent}public $bufferType $getter(int $BUFFER_CAPACITY_PARAM) { return $n$getter($ADDRESS, $BUFFER_CAPACITY_PARAM); }")
+						println(
+							"""$indent/**
+$indent * Rebinds the specified {@link $bufferType} to the data pointed to by the {@code $getter} field and returns it, without allocating a new view.
+$indent *
+$indent * @param $BUFFER_CAPACITY_PARAM the number of elements in the returned buffer
+$indent * @param target the buffer to rebind, or null to allocate a new view. See {@link MemoryUtil#memSetupBuffer($bufferType, long, int) memSetupBuffer}.
+$indent */""")
+						println("${indent}public $bufferType ${getter}Rebind(int $BUFFER_CAPACITY_PARAM, $bufferType target) { return $n${getter}Rebind($ADDRESS, $BUFFER_CAPACITY_PARAM, target); }")
 					} else {
 						println("$indent/** Returns a {@link $bufferType} view of the data pointed to by the {@code $getter} field. */")
 						println("${indent}public $bufferType $getter() { return $n$getter($ADDRESS); }")
+						println("""$indent/**
+$indent * Rebinds the specified {@link $bufferType} to the data pointed to by the {@code $getter} field and returns it, without allocating a new view.
+$indent *
+$indent * @param target the buffer to rebind, or null to allocate a new view. See {@link MemoryUtil#memSetupBuffer($bufferType, long, int) memSetupBuffer}.
+$indent */""")
+						println("${indent}public $bufferType ${getter}Rebind($bufferType target) { return $n${getter}Rebind($ADDRESS, target); }")
 					}
 				}
 			}
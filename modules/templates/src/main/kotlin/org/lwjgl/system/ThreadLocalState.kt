@@ -26,6 +26,9 @@ public final class $CLASS implements Runnable {
 	Runnable target;
 
 	public final MemoryStack stack;
+
+	/** The current allocation tag, see {@link MemoryUtil#memSetTag}. */
+	int memoryTag;
 """)
 
 		Generator.tlsState.toSortedSet().forEach {
@@ -34,7 +37,7 @@ public final class $CLASS implements Runnable {
 
 		println("""
 	$CLASS() {
-		stack = MemoryStack.create();
+		stack = MemoryStack.createThreadLocal();
 	}
 
 	@Override
@@ -17,4 +17,5 @@ fun config() {
 
 val long = IntegerType("long", PrimitiveMapping.POINTER)
 val unsigned_long = IntegerType("unsigned long", PrimitiveMapping.POINTER, unsigned = true)
-val unsigned_long_p = unsigned_long.p
\ No newline at end of file
+val unsigned_long_p = unsigned_long.p
+val off_t = IntegerType("off_t", PrimitiveMapping.LONG)
@@ -0,0 +1,102 @@
+/*
+ * Copyright LWJGL. All rights reserved.
+ * License terms: http://lwjgl.org/license.php
+ */
+package org.lwjgl.system.linux.templates
+
+import org.lwjgl.generator.*
+import org.lwjgl.system.linux.*
+
+val mman = "MMan".nativeClass(LINUX_PACKAGE) {
+	nativeImport (
+		"LinuxLWJGL.h",
+		"<sys/mman.h>"
+	)
+
+	documentation = "Native bindings to <sys/mman.h>."
+
+	val Protections = IntConstant(
+		"The {@code prot} argument to #mmap() is either #PROT_NONE or the bitwise OR of one or more of the following flags.",
+
+		"PROT_READ"..0x1,
+		"PROT_WRITE"..0x2,
+		"PROT_EXEC"..0x4
+	).javaDocLinks + " #PROT_NONE"
+
+	IntConstant(
+		"Pages may not be accessed.",
+
+		"PROT_NONE"..0x0
+	)
+
+	val Flags = IntConstant(
+		"The {@code flags} argument to #mmap() contains exactly one of #MAP_SHARED or #MAP_PRIVATE, optionally ORed with the other flags.",
+
+		"MAP_SHARED"..0x01,
+		"MAP_PRIVATE"..0x02,
+		"MAP_FIXED"..0x10,
+		"MAP_ANONYMOUS"..0x20,
+		"MAP_NORESERVE"..0x4000,
+		"MAP_POPULATE"..0x8000
+	).javaDocLinks
+
+	LongConstant(
+		"The value returned by #mmap() on error.",
+
+		"MAP_FAILED" expr "-1L"
+	)
+
+	val Advice = IntConstant(
+		"The {@code advice} argument to #madvise().",
+
+		"MADV_NORMAL"..0,
+		"MADV_RANDOM"..1,
+		"MADV_SEQUENTIAL"..2,
+		"MADV_WILLNEED"..3,
+		"MADV_DONTNEED"..4,
+		"MADV_HUGEPAGE"..14,
+		"MADV_NOHUGEPAGE"..15
+	).javaDocLinks
+
+	SaveErrno..voidptr(
+		"mmap",
+		"""
+		Creates a new mapping in the virtual address space of the calling process.
+
+		Returns the address of the new mapping on success, or #MAP_FAILED on error. The error code can be retrieved with
+		{@link org.lwjgl.system.libc.Errno\#getErrno}.
+		""",
+
+		nullable..voidptr.IN("addr", "a hint about where to place the mapping, or $NULL to let the kernel choose the address"),
+		size_t.IN("length", "the length of the mapping, in bytes"),
+		int.IN("prot", "the desired memory protection of the mapping", Protections, LinkMode.BITFIELD),
+		int.IN("flags", "determines whether updates to the mapping are visible to other processes", Flags, LinkMode.BITFIELD),
+		int.IN("fd", "the file descriptor of the file to map, or -1 for an anonymous mapping"),
+		off_t.IN("offset", "the offset in the file, a multiple of the page size")
+	)
+
+	SaveErrno..int(
+		"munmap",
+		"""
+		Deletes the mappings for the specified address range. The address must be a multiple of the page size.
+
+		Returns 0 on success, or -1 on error.
+		""",
+
+		voidptr.IN("addr", "the start address of the range"),
+		size_t.IN("length", "the length of the range, in bytes")
+	)
+
+	SaveErrno..int(
+		"madvise",
+		"""
+		Advises the kernel about how to handle paging input/output in the specified address range. The address must be a multiple of the page size.
+
+		Returns 0 on success, or -1 on error.
+		""",
+
+		voidptr.IN("addr", "the start address of the range"),
+		size_t.IN("length", "the length of the range, in bytes"),
+		int.IN("advice", "the advice", Advice)
+	)
+}